@@ -0,0 +1,127 @@
+package org.example.sqlsanitize.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.sqlsanitize.model.SensitiveWord;
+import org.example.sqlsanitize.repository.DictionaryVersionRepository;
+import org.example.sqlsanitize.repository.SensitiveWordRepository;
+import org.example.sqlsanitize.util.WordUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Builds the dictionaries and inputs shared by the benchmarks.
+ * <p>
+ * Everything is generated from a fixed seed, so runs before and after a change see exactly the same data.
+ * </p>
+ */
+final class BenchmarkData {
+
+    /** Seed list shipped with the application. */
+    private static final String SEED_RESOURCE = "/sql_sensitive_list.txt";
+
+    /** Plain identifiers mixed into generated inputs so most of the text doesn't match. */
+    private static final String[] FILLER = {
+            "users", "orders", "id", "name", "created_at", "t1", "amount", "status", "'abc'", "42", "=", ",", "(", ")"
+    };
+
+    private BenchmarkData() { }
+
+    /** Normalized terms from {@code sql_sensitive_list.txt}. */
+    static List<String> seedTerms() {
+        try (InputStream in = BenchmarkData.class.getResourceAsStream(SEED_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Seed file not found on classpath: " + SEED_RESOURCE);
+            }
+            List<String> raw = new ObjectMapper().readValue(in, new TypeReference<>() {
+            });
+            Set<String> terms = new LinkedHashSet<>();
+            for (String r : raw) {
+                terms.add(WordUtils.validateAndNormalize(r));
+            }
+            return new ArrayList<>(terms);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The seed terms, padded with synthetic words and phrases up to {@code size} terms.
+     *
+     * @param size "seed" for just the seed list, otherwise the total number of terms
+     */
+    static List<SensitiveWord> dictionary(String size) {
+        List<String> seed = seedTerms();
+        int target = "seed".equals(size) ? seed.size() : Integer.parseInt(size);
+
+        Set<String> terms = new LinkedHashSet<>(seed);
+        Random random = new Random(42);
+        while (terms.size() < target) {
+            String base = seed.get(random.nextInt(seed.size()));
+            // Mix of suffixed words ("select_123") and two-word phrases ("drop table_77").
+            String term = random.nextBoolean()
+                    ? base + "_" + random.nextInt(1_000_000)
+                    : base + " " + seed.get(random.nextInt(seed.size())) + "_" + random.nextInt(1_000);
+            terms.add(term);
+        }
+
+        List<SensitiveWord> words = new ArrayList<>(terms.size());
+        long id = 1;
+        for (String t : terms) {
+            words.add(new SensitiveWord(id++, t));
+        }
+        return words;
+    }
+
+    /**
+     * SQL-like text of roughly {@code bytes} chars; about one token in five is a seed term.
+     */
+    static String input(int bytes) {
+        List<String> seed = seedTerms();
+        Random random = new Random(7);
+        StringBuilder sb = new StringBuilder(bytes + 32);
+        while (sb.length() < bytes) {
+            String token = random.nextInt(5) == 0
+                    ? seed.get(random.nextInt(seed.size())).toUpperCase()
+                    : FILLER[random.nextInt(FILLER.length)];
+            sb.append(token).append(random.nextInt(20) == 0 ? ";\n" : " ");
+        }
+        sb.setLength(bytes);
+        return sb.toString();
+    }
+
+    /** Read-only repository stub whose {@code findAll()} returns the given words. */
+    static SensitiveWordRepository repositoryOf(List<SensitiveWord> words) {
+        return (SensitiveWordRepository) Proxy.newProxyInstance(
+                SensitiveWordRepository.class.getClassLoader(),
+                new Class<?>[]{SensitiveWordRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findAll") && (args == null || args.length == 0)) {
+                        return new ArrayList<>(words);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /** Read-only version repository stub with no stored version, so every reload just compiles. */
+    static DictionaryVersionRepository noStoredVersion() {
+        return (DictionaryVersionRepository) Proxy.newProxyInstance(
+                DictionaryVersionRepository.class.getClassLoader(),
+                new Class<?>[]{DictionaryVersionRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findById")) {
+                        return Optional.empty();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
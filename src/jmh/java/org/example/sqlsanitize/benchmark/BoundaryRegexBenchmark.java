@@ -0,0 +1,47 @@
+package org.example.sqlsanitize.benchmark;
+
+import org.example.sqlsanitize.util.WordUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link WordUtils#buildBoundaryRegex(String)} for every term in the seed list, covering both the
+ * whole-word and the lookaround (phrase/symbol) branch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoundaryRegexBenchmark {
+
+    private List<String> terms;
+
+    @Setup
+    public void setUp() {
+        terms = BenchmarkData.seedTerms();
+        terms.add("order by");
+        terms.add("select * from");
+        terms.add("*");
+    }
+
+    @Benchmark
+    public void buildBoundaryRegex(Blackhole bh) {
+        for (String term : terms) {
+            bh.consume(WordUtils.buildBoundaryRegex(term));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.sqlsanitize.benchmark;
+
+import org.example.sqlsanitize.engine.AhoCorasickEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scalar vs vectorized candidate search, on clean text (where it decides alone) and on SQL.
+ * <p>
+ * Both benchmarks run the same code; {@code vector} forks a JVM with {@code --add-modules jdk.incubator.vector},
+ * which switches the prefilter to the Vector API, and {@code scalar} one without it.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CandidateScanBenchmark {
+
+    @Param({"clean", "sql"})
+    public String text;
+
+    @Param({"1024", "65536"})
+    public int inputBytes;
+
+    private AhoCorasickEngine engine;
+    private String input;
+
+    @Setup
+    public void setUp() {
+        engine = AhoCorasickEngine.compile(BenchmarkData.dictionary("seed"));
+        String source = "clean".equals(text)
+                ? "hello team, the deployment finished fine and the dashboards look green again. ".repeat(1 + inputBytes / 80)
+                : BenchmarkData.input(inputBytes);
+        input = source.substring(0, inputBytes);
+    }
+
+    @Benchmark
+    @Fork(1)
+    public String scalar() {
+        return engine.sanitize(input);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+    public String vector() {
+        return engine.sanitize(input);
+    }
+}
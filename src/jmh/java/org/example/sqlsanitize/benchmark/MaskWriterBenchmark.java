@@ -0,0 +1,65 @@
+package org.example.sqlsanitize.benchmark;
+
+import org.example.sqlsanitize.engine.AhoCorasickEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call cost of the masking stage on chat-sized messages, clean and dirty.
+ * <p>
+ * The number to watch here is {@code gc.alloc.rate.norm} (bytes allocated per call, from {@code -prof gc}):
+ * a clean message should allocate nothing, and a dirty one only its result String.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MaskWriterBenchmark {
+
+    @Param({"clean", "dirty"})
+    public String message;
+
+    @Param({"100", "4096"})
+    public int inputBytes;
+
+    private AhoCorasickEngine engine;
+    private String input;
+    private StringBuilder target;
+
+    @Setup
+    public void setUp() {
+        engine = AhoCorasickEngine.compile(BenchmarkData.dictionary("seed"));
+        String text = "clean".equals(message)
+                ? "hello team, the deployment finished fine and the dashboards look green again. ".repeat(1 + inputBytes / 80)
+                : BenchmarkData.input(inputBytes);
+        input = text.substring(0, inputBytes);
+        target = new StringBuilder(inputBytes);
+    }
+
+    @Benchmark
+    public String sanitizeToString() {
+        return engine.sanitize(input);
+    }
+
+    @Benchmark
+    public StringBuilder sanitizeToAppendable() throws IOException {
+        target.setLength(0);
+        engine.sanitize(input, target);
+        return target;
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.sqlsanitize.benchmark;
+
+import org.example.sqlsanitize.engine.AhoCorasickEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Speedup of parallel sanitizing on a 20 MB migration-script-sized input as the number of cores grows.
+ * <p>
+ * {@code parallelism = 0} is the sequential baseline; compare the other rows against it. Rows with more
+ * threads than the machine has cores are expected to flatten out.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ParallelSanitizeBenchmark {
+
+    @Param({"0", "1", "2", "4", "8", "16"})
+    public int parallelism;
+
+    @Param({"262144"})
+    public int chunkSize;
+
+    private AhoCorasickEngine engine;
+    private ForkJoinPool pool;
+    private String input;
+
+    @Setup
+    public void setUp() {
+        engine = AhoCorasickEngine.compile(BenchmarkData.dictionary("10000"));
+        pool = parallelism > 0 ? new ForkJoinPool(parallelism) : null;
+        input = BenchmarkData.input(20 * 1024 * 1024);
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (pool != null) pool.shutdown();
+    }
+
+    @Benchmark
+    public String sanitize() {
+        return pool == null ? engine.sanitize(input) : engine.sanitizeParallel(input, pool, chunkSize);
+    }
+}
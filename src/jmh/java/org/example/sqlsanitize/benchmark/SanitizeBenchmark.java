@@ -0,0 +1,68 @@
+package org.example.sqlsanitize.benchmark;
+
+import org.example.sqlsanitize.model.SensitiveWord;
+import org.example.sqlsanitize.repository.SensitiveWordRepository;
+import org.example.sqlsanitize.service.DictionaryRebuildScheduler;
+import org.example.sqlsanitize.service.SanitizeResultCache;
+import org.example.sqlsanitize.service.SensitiveWordDictionary;
+import org.example.sqlsanitize.service.SensitiveWordService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link SensitiveWordService#sanitize(String)} across dictionary and input sizes.
+ * <p>
+ * Inputs go from a 100 B chat message to a 10 MB SQL dump. Run with {@code -prof gc} (the default
+ * {@code jmh.args}) to also get the allocation rate per operation.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class SanitizeBenchmark {
+
+    @Param({"seed", "10000", "100000"})
+    public String dictionarySize;
+
+    @Param({"100", "10240", "1048576", "10485760"})
+    public int inputBytes;
+
+    private SensitiveWordService service;
+    private String input;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<SensitiveWord> words = BenchmarkData.dictionary(dictionarySize);
+        SensitiveWordRepository repository = BenchmarkData.repositoryOf(words);
+
+        SensitiveWordDictionary dictionary = new SensitiveWordDictionary(repository, BenchmarkData.noStoredVersion());
+        dictionary.reload();
+        DictionaryRebuildScheduler scheduler =
+                new DictionaryRebuildScheduler(dictionary, Duration.ZERO, Duration.ofSeconds(30));
+        // Caching off: every call should measure a real scan.
+        service = new SensitiveWordService(repository, dictionary, scheduler, new SanitizeResultCache(0, 0));
+        input = BenchmarkData.input(inputBytes);
+    }
+
+    @Benchmark
+    public String sanitize() {
+        return service.sanitize(input);
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.sqlsanitize.actuator;
+
+import lombok.RequiredArgsConstructor;
+import org.example.sqlsanitize.engine.DictionarySnapshot;
+import org.example.sqlsanitize.service.DictionaryRebuildScheduler;
+import org.example.sqlsanitize.service.SensitiveWordDictionary;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint ({@code /actuator/dictionary}) describing the in-memory dictionary used for sanitizing.
+ * <p>
+ * Useful for tuning {@code sanitize.dictionary.rebuild-window}: it shows how many committed changes are waiting
+ * for the next rebuild and how long the last rebuild took. {@code footprintBytes} is the approximate memory held
+ * by the compiled automaton, on or off the heap depending on {@code storage}, for sizing containers.
+ * {@code prefilterMisses} counts inputs returned without being scanned because they can't contain a term,
+ * {@code prefilterHits} the ones that had to be scanned.
+ * </p>
+ */
+@Component
+@Endpoint(id = "dictionary")
+@RequiredArgsConstructor
+public class DictionaryEndpoint {
+
+    private final SensitiveWordDictionary sensitiveWordDictionary;
+    private final DictionaryRebuildScheduler dictionaryRebuildScheduler;
+
+    @ReadOperation
+    public Map<String, Object> dictionary() {
+        DictionarySnapshot snapshot = sensitiveWordDictionary.current();
+        Duration lastRebuild = sensitiveWordDictionary.getLastReloadDuration();
+
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("version", snapshot.version());
+        details.put("sourceVersion", snapshot.sourceVersion());
+        details.put("terms", snapshot.engine().getTermCount());
+        details.put("states", snapshot.engine().getStateCount());
+        details.put("storage", snapshot.engine().getStorage());
+        details.put("footprintBytes", snapshot.engine().getFootprintBytes());
+        details.put("prefilterHits", sensitiveWordDictionary.getPrefilterStats().getHits());
+        details.put("prefilterMisses", sensitiveWordDictionary.getPrefilterStats().getMisses());
+        details.put("pendingChanges", dictionaryRebuildScheduler.getPendingChanges());
+        details.put("rebuildWindowMillis", dictionaryRebuildScheduler.getRebuildWindow().toMillis());
+        details.put("lastRebuildMillis", lastRebuild == null ? null : lastRebuild.toMillis());
+        return details;
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.sqlsanitize.actuator;
+
+import lombok.RequiredArgsConstructor;
+import org.example.sqlsanitize.engine.DictionarySnapshot;
+import org.example.sqlsanitize.service.SensitiveWordDictionary;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Health of the in-memory dictionary ({@code dictionary} in {@code /actuator/health}).
+ * <ul>
+ *   <li>{@code UP}: loaded and in sync with the database.</li>
+ *   <li>{@code STALE}: still masking, but with a snapshot that couldn't be checked against the database
+ *       (e.g. the one persisted on disk while the database is down).</li>
+ *   <li>{@code DOWN}: no dictionary loaded at all, so sanitizing answers {@code 503}.</li>
+ * </ul>
+ * <p>Also part of the {@code readiness} health group, so a load balancer stops routing to an instance that
+ * has nothing to mask with.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class DictionaryHealthIndicator implements HealthIndicator {
+
+    /** Serving a dictionary that may be out of date. */
+    public static final Status STALE = new Status("STALE", "Serving a dictionary snapshot that may be out of date");
+
+    private final SensitiveWordDictionary sensitiveWordDictionary;
+
+    @Override
+    public Health health() {
+        DictionarySnapshot snapshot = sensitiveWordDictionary.current();
+        Instant staleSince = sensitiveWordDictionary.getStaleSince();
+        Health.Builder health;
+        if (snapshot.version() == 0) {
+            health = Health.down();
+        } else if (staleSince != null) {
+            health = Health.status(STALE);
+        } else {
+            health = Health.up();
+        }
+
+        health.withDetail("version", snapshot.version())
+                .withDetail("sourceVersion", snapshot.sourceVersion())
+                .withDetail("terms", snapshot.engine().getTermCount());
+        if (staleSince != null) {
+            health.withDetail("staleSince", staleSince)
+                    .withDetail("reason", String.valueOf(sensitiveWordDictionary.getStaleReason()));
+        }
+        return health.build();
+    }
+}
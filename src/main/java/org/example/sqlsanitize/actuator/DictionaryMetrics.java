@@ -0,0 +1,33 @@
+package org.example.sqlsanitize.actuator;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.example.sqlsanitize.engine.PrefilterStats;
+import org.example.sqlsanitize.service.SensitiveWordDictionary;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the sanitizing prefilter's counts as {@code sanitize.prefilter} (tagged {@code result=hit|miss}) on
+ * {@code /actuator/metrics}. A miss is an input returned without being scanned.
+ */
+@Component
+@RequiredArgsConstructor
+public class DictionaryMetrics implements MeterBinder {
+
+    private final SensitiveWordDictionary sensitiveWordDictionary;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        PrefilterStats stats = sensitiveWordDictionary.getPrefilterStats();
+        FunctionCounter.builder("sanitize.prefilter", stats, PrefilterStats::getHits)
+                .tag("result", "hit")
+                .description("Inputs the prefilter passed on to matching")
+                .register(registry);
+        FunctionCounter.builder("sanitize.prefilter", stats, PrefilterStats::getMisses)
+                .tag("result", "miss")
+                .description("Inputs returned unscanned because they can't contain a term")
+                .register(registry);
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.sqlsanitize.actuator;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.example.sqlsanitize.service.SanitizeResultCache;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the sanitize result cache's lookups as {@code sanitize.cache} (tagged {@code result=hit|miss|coalesced})
+ * and its size as {@code sanitize.cache.size} on {@code /actuator/metrics}; the hit rate is hits / (hits + misses).
+ * Coalesced lookups waited for an identical one in progress.
+ */
+@Component
+@RequiredArgsConstructor
+public class SanitizeCacheMetrics implements MeterBinder {
+
+    private final SanitizeResultCache sanitizeResultCache;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("sanitize.cache", sanitizeResultCache, SanitizeResultCache::getHits)
+                .tag("result", "hit")
+                .description("Sanitize calls answered from the result cache")
+                .register(registry);
+        FunctionCounter.builder("sanitize.cache", sanitizeResultCache, SanitizeResultCache::getMisses)
+                .tag("result", "miss")
+                .description("Cacheable sanitize calls that had to scan")
+                .register(registry);
+        FunctionCounter.builder("sanitize.cache", sanitizeResultCache, SanitizeResultCache::getCoalesced)
+                .tag("result", "coalesced")
+                .description("Sanitize calls that waited for an identical one in progress")
+                .register(registry);
+        Gauge.builder("sanitize.cache.size", sanitizeResultCache, SanitizeResultCache::size)
+                .description("Sanitized results currently cached")
+                .register(registry);
+    }
+}
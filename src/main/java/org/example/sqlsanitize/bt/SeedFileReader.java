@@ -0,0 +1,117 @@
+package org.example.sqlsanitize.bt;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the terms of a seed file one at a time, so the file never has to fit in memory.
+ *
+ * <p>The format is told from the content, not the file name:</p>
+ * <ul>
+ *   <li>gzip-compressed (by its magic bytes): decompressed on the fly, then one of the formats below;</li>
+ *   <li>starting with {@code [}: a JSON array of strings, read token by token;</li>
+ *   <li>starting with {@code "}: newline-delimited JSON, one string per line;</li>
+ *   <li>anything else: plain text, one term per line; blank lines are skipped.</li>
+ * </ul>
+ */
+final class SeedFileReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** How far ahead the format sniffing may look for the first non-blank byte. */
+    private static final int SNIFF_LIMIT = 8192;
+
+    private final JsonParser json;
+    private final BufferedReader lines;
+    private final boolean array;
+
+    private SeedFileReader(JsonParser json, BufferedReader lines, boolean array) {
+        this.json = json;
+        this.lines = lines;
+        this.array = array;
+    }
+
+    /**
+     * @param raw     the seed file's bytes; closed together with the reader
+     * @param factory creates the JSON parser, if the content is JSON
+     */
+    static SeedFileReader open(InputStream raw, JsonFactory factory) throws IOException {
+        InputStream in = new BufferedInputStream(raw, BUFFER_SIZE);
+        try {
+            if (isGzip(in)) {
+                in = new BufferedInputStream(new GZIPInputStream(in, BUFFER_SIZE), BUFFER_SIZE);
+            }
+            int first = firstNonBlank(in);
+            if (first == '[' || first == '"') {
+                JsonParser parser = factory.createParser(in);
+                if (first == '[') parser.nextToken();
+                return new SeedFileReader(parser, null, first == '[');
+            }
+            return new SeedFileReader(null, new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)), false);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the next raw (not yet normalized) term, or {@code null} at the end of the file
+     * @throws IOException if reading fails or the JSON is malformed or holds something other than strings
+     */
+    String next() throws IOException {
+        if (lines != null) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                if (line.startsWith("\uFEFF")) line = line.substring(1);
+                if (!line.isBlank()) return line;
+            }
+            return null;
+        }
+
+        JsonToken token = json.nextToken();
+        if (token == null || (array && token == JsonToken.END_ARRAY)) return null;
+        if (token != JsonToken.VALUE_STRING) {
+            throw new JsonParseException(json, "Seed terms must be strings, found " + token);
+        }
+        return json.getText();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (json != null) json.close();
+        if (lines != null) lines.close();
+    }
+
+    private static boolean isGzip(InputStream in) throws IOException {
+        in.mark(2);
+        int b0 = in.read();
+        int b1 = in.read();
+        in.reset();
+        return b0 == 0x1f && b1 == 0x8b;
+    }
+
+    /** @return the first byte that isn't whitespace or a UTF-8 byte order mark, without consuming it; -1 if none */
+    private static int firstNonBlank(InputStream in) throws IOException {
+        in.mark(SNIFF_LIMIT);
+        try {
+            for (int i = 0; i < SNIFF_LIMIT; i++) {
+                int b = in.read();
+                if (b == -1 || !(Character.isWhitespace(b) || b == 0xEF || b == 0xBB || b == 0xBF)) return b;
+            }
+            return -1;
+        } finally {
+            in.reset();
+        }
+    }
+}
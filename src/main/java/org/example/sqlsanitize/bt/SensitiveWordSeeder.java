@@ -1,62 +1,188 @@
 package org.example.sqlsanitize.bt;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonFactory;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.example.sqlsanitize.model.SensitiveWord;
-import org.example.sqlsanitize.repository.SensitiveWordRepository;
+import org.example.sqlsanitize.model.DictionaryVersion;
+import org.example.sqlsanitize.model.SeedFileState;
+import org.example.sqlsanitize.repository.DictionaryVersionRepository;
+import org.example.sqlsanitize.repository.SeedFileStateRepository;
+import org.example.sqlsanitize.service.SensitiveWordDictionary;
 import org.example.sqlsanitize.util.WordUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.core.io.Resource;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Set;
 
+/**
+ * Seeds the sensitive word table from {@code seed.words.file} on startup.
+ *
+ * <p>The file is read term by term (see {@link SeedFileReader} for the accepted formats, including gzip), so only
+ * one insert batch is held at a time, however large the file or the table. Terms are inserted through plain JDBC
+ * batches of {@code seed.words.batch-size} rows (with IDENTITY keys Hibernate would send one insert per entity), each
+ * row only if the word isn't stored yet, so the database itself skips duplicates. Each batch commits in its own
+ * transaction, so seeding never holds locks or log space for the whole file, and a failure keeps what was written.</p>
+ *
+ * <p>The SHA-256 of the file applied last is kept in {@link SeedFileState}, written in a final short transaction
+ * once every batch is in; while the file is unchanged, restarts skip seeding without reading a single term or stored
+ * word. A run that didn't finish records nothing, so the next start seeds again (skipping what is already there).</p>
+ *
+ * <p>Only a database that can't be reached lets startup carry on without seeding; any other database error, e.g. a
+ * term too long for its column, fails startup.</p>
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class SensitiveWordSeeder implements CommandLineRunner {
 
-    private final SensitiveWordRepository repository;
+    private final SensitiveWordDictionary sensitiveWordDictionary;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final SeedFileStateRepository seedFileStateRepository;
+    private final DictionaryVersionRepository dictionaryVersionRepository;
+
+    private static final String INSERT_SQL =
+            "insert into sensitive_words (word) select ? where not exists (select 1 from sensitive_words where word = ?)";
 
     @Value("${seed.words.file:classpath:sql_sensitive_list.txt}")
     private Resource seedFile;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    /** Rows per JDBC insert batch. */
+    @Value("${seed.words.batch-size:1000}")
+    private int batchSize = 1000;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
 
     @Override
-    @Transactional
     public void run(String... args) throws Exception {
         if (seedFile == null || !seedFile.exists()) {
             log.warn("Seed file not found or not provided; skipping seeding.");
             return;
         }
 
-        try (InputStream in = seedFile.getInputStream()) {
-            List<String> terms = objectMapper.readValue(in, new TypeReference<>() {
-            });
-            int inserted = 0, skipped = 0;
+        String contentHash = contentHash();
+        try {
+            SeedFileState applied = seedFileStateRepository.findById(SeedFileState.SINGLETON_ID).orElse(null);
+            if (applied != null && applied.getContentHash().equals(contentHash)) {
+                log.info("Seed file {} unchanged since it was applied at {} (dictionary version {}); skipping seeding.",
+                        seedFile.getDescription(), applied.getAppliedAt(), applied.getDictionaryVersion());
+                return;
+            }
 
-            for (String raw : terms) {
-                String normalized = WordUtils.validateAndNormalize(raw);
+            try (SeedFileReader terms = SeedFileReader.open(seedFile.getInputStream(), jsonFactory)) {
+                seed(terms);
+            }
+            transactionTemplate.executeWithoutResult(status -> recordApplied(contentHash));
+        } catch (DataAccessResourceFailureException | CannotCreateTransactionException e) {
+            // Keep starting up: the dictionary can still be served from its persisted snapshot.
+            log.warn("Database unavailable; skipping seeding ({}).", e.getMessage());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
 
-                if (repository.existsByWordIgnoreCase(normalized)) {
-                    skipped++;
-                    continue;
-                }
+    private void seed(SeedFileReader terms) {
+        long start = System.nanoTime();
+        int inserted = 0, skipped = 0;
 
-                SensitiveWord w = new SensitiveWord();
-                w.setWord(normalized);
-                repository.save(w);
-                inserted++;
+        // Only repeats within one batch are caught here; the insert itself skips words stored earlier.
+        Set<String> inBatch = new HashSet<>();
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (String raw = nextTerm(terms); raw != null; raw = nextTerm(terms)) {
+            String normalized = WordUtils.validateAndNormalize(raw);
+
+            if (!inBatch.add(normalized)) {
+                skipped++;
+                continue;
+            }
+
+            batch.add(new Object[]{normalized, normalized});
+            if (batch.size() == batchSize) {
+                int rows = insert(batch);
+                inserted += rows;
+                skipped += batchSize - rows;
+                batch.clear();
+                inBatch.clear();
             }
+        }
+        int rows = insert(batch);
+        inserted += rows;
+        skipped += batch.size() - rows;
+
+        double seconds = Math.max(System.nanoTime() - start, 1) / 1e9;
+        log.info("SensitiveWord seeding complete: inserted={}, skipped={} in {} ms ({} terms/s, from {}).",
+                inserted, skipped, Math.round(seconds * 1000), Math.round((inserted + skipped) / seconds),
+                seedFile.getDescription());
+    }
+
+    /** Remembers {@code contentHash} as applied, together with the dictionary version it led to. */
+    private void recordApplied(String contentHash) {
+        long version = dictionaryVersionRepository.findById(DictionaryVersion.SINGLETON_ID)
+                .map(DictionaryVersion::getVersion)
+                .orElse(0L);
+        seedFileStateRepository.save(new SeedFileState(SeedFileState.SINGLETON_ID, contentHash, version, Instant.now()));
+    }
 
-            log.info("SensitiveWord seeding complete: inserted={}, skipped={} (from {}).",
-                    inserted, skipped, seedFile.getDescription());
+    /** Hex SHA-256 of the seed file's bytes. */
+    private String contentHash() throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
+        try (InputStream in = seedFile.getInputStream();
+             OutputStream out = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+            in.transferTo(out);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static String nextTerm(SeedFileReader terms) {
+        try {
+            return terms.next();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Inserts {@code batch} in its own transaction; returns how many of its terms weren't stored yet and were
+     * actually inserted.
+     */
+    private int insert(List<Object[]> batch) {
+        if (batch.isEmpty()) return 0;
+        Integer inserted = transactionTemplate.execute(status -> {
+            int rows = 0;
+            for (int count : jdbcTemplate.batchUpdate(INSERT_SQL, batch)) {
+                // Some drivers don't report per-row counts for batches; the not-exists check still held.
+                if (count > 0 || count == Statement.SUCCESS_NO_INFO) rows++;
+            }
+            if (rows > 0) {
+                // The dictionary itself is reloaded once startup completes; just mark the stored one as changed.
+                sensitiveWordDictionary.markChanged();
+            }
+            return rows;
+        });
+        return inserted == null ? 0 : inserted;
     }
 }
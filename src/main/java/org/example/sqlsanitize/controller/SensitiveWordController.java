@@ -8,13 +8,35 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.example.sqlsanitize.api.ApiCode;
 import org.example.sqlsanitize.api.ApiResult;
+import org.example.sqlsanitize.dto.DetectResultDTO;
+import org.example.sqlsanitize.dto.ImportResultDTO;
+import org.example.sqlsanitize.dto.SanitizeBatchRequestDTO;
 import org.example.sqlsanitize.dto.SanitizeRequestDTO;
 import org.example.sqlsanitize.dto.SqlSanitizeWordDTO;
+import org.example.sqlsanitize.engine.MatchSpans;
 import org.example.sqlsanitize.model.SensitiveWord;
+import org.example.sqlsanitize.service.DictionaryUnavailableException;
+import org.example.sqlsanitize.service.SensitiveWordExportService;
+import org.example.sqlsanitize.service.SensitiveWordImportService;
 import org.example.sqlsanitize.service.SensitiveWordService;
+import org.example.sqlsanitize.service.WordFileFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.OptionalLong;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Endpoints to manage the sensitive word/phrase list and to sanitize text.
@@ -22,7 +44,9 @@ import java.util.List;
  * Conventions:
  * <ul>
  *   <li><b>Create/Update</b>: JSON body using {@link SqlSanitizeWordDTO}.</li>
+ *   <li><b>Import/Export</b>: NDJSON or CSV file as the raw body, for many words at once.</li>
  *   <li><b>Sanitize</b>: simple query parameter (<code>?input=...</code>).</li>
+ *   <li><b>Sanitize stream</b>: raw text body in, raw text body out (for very large inputs).</li>
  * </ul>
  */
 @RestController
@@ -32,9 +56,18 @@ import java.util.List;
 public class SensitiveWordController {
 
     private final SensitiveWordService sensitiveWordService;
+    private final SensitiveWordImportService sensitiveWordImportService;
+    private final SensitiveWordExportService sensitiveWordExportService;
+
+    /** Media type of newline-delimited JSON uploads. */
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+
+    /** Media type of CSV uploads. */
+    private static final String CSV_VALUE = "text/csv";
 
     /**
      * Get the full list of configured sensitive words/phrases, sorted A→Z (case-insensitive).
+     * <p>Builds the whole list in memory; use {@link #export(WordFileFormat, boolean)} for large dictionaries.</p>
      *
      * @return {@link ApiResult} with {@link ApiCode#OK} and the list; if empty, {@link ApiCode#NO_CONTENT}.
      */
@@ -77,6 +110,93 @@ public class SensitiveWordController {
         return new ApiResult<>(ApiCode.CREATED, sensitiveWordService.add(sqlSanitizeWordDTO.getWord()));
     }
 
+    /**
+     * Download all words/phrases as a file, streamed straight from the database.
+     * <p>
+     * Example: <pre>GET /api/sensitive-words/export?format=CSV&amp;gzip=true</pre>
+     * Memory use doesn't grow with the dictionary. The file is UTF-8, sorted by word, and can be uploaded to
+     * {@code /import} as is (after decompressing, if gzipped). The download runs as long as it takes: see
+     * {@code spring.mvc.async.request-timeout}.
+     * </p>
+     *
+     * @param format {@link WordFileFormat#NDJSON} (default) or {@link WordFileFormat#CSV}
+     * @param gzip   whether to compress the response ({@code Content-Encoding: gzip})
+     * @return the words as {@code application/x-ndjson} or {@code text/csv}
+     */
+    @GetMapping(path = "/export", produces = {NDJSON_VALUE, CSV_VALUE})
+    @Operation(
+            summary = "Export all sensitive words/phrases",
+            description = "Streams every stored word as NDJSON ({\"id\": 1, \"word\": \"select\"} per line) "
+                    + "or CSV (word,id). Pass gzip=true for a gzip-encoded response."
+    )
+    @ApiResponses(
+            {
+                    @ApiResponse(responseCode = "200", description = "Exported"),
+                    @ApiResponse(responseCode = "400", description = "Unknown format")
+            }
+    )
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "NDJSON") WordFileFormat format,
+                                                        @RequestParam(defaultValue = "false") boolean gzip) {
+        boolean csv = format == WordFileFormat.CSV;
+        StreamingResponseBody responseBody = out -> {
+            if (!gzip) {
+                sensitiveWordExportService.export(format, out);
+                return;
+            }
+            GZIPOutputStream compressed = new GZIPOutputStream(out, 8192);
+            sensitiveWordExportService.export(format, compressed);
+            compressed.finish();
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.valueOf(csv ? CSV_VALUE : NDJSON_VALUE), StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(csv ? "sensitive-words.csv" : "sensitive-words.ndjson")
+                        .build()
+                        .toString());
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(responseBody);
+    }
+
+    /**
+     * Add many words/phrases from an uploaded file.
+     * <p>
+     * Body: newline-delimited JSON ({@code "select"} or {@code {"word": "select"}} per line) or CSV (the word in the
+     * first column, with an optional {@code word} header). The file is read as it arrives and stored in batches,
+     * and the dictionary is rebuilt once at the end. The charset of the request (UTF-8 if not given) is used.
+     * </p>
+     *
+     * @param body    the uploaded file
+     * @param headers request headers, used to pick the format and charset
+     * @return {@link ApiResult} with {@link ApiCode#OK} and the inserted/skipped/rejected counts
+     * @throws IOException if reading the body fails
+     */
+    @PostMapping(path = "/import", consumes = {NDJSON_VALUE, CSV_VALUE})
+    @Operation(
+            summary = "Import many sensitive words/phrases",
+            description = "Send an application/x-ndjson or text/csv file as the body. Existing words are skipped, "
+                    + "unparseable or blank lines are counted as rejected."
+    )
+    @ApiResponses(
+            {
+                    @ApiResponse(responseCode = "200", description = "Imported (see counts)")
+            }
+    )
+    public ApiResult<ImportResultDTO> importWords(InputStream body, @RequestHeader HttpHeaders headers) throws IOException {
+        MediaType contentType = headers.getContentType();
+        Charset charset = contentType != null && contentType.getCharset() != null
+                ? contentType.getCharset()
+                : StandardCharsets.UTF_8;
+        WordFileFormat format =
+                contentType != null && contentType.isCompatibleWith(MediaType.valueOf(CSV_VALUE))
+                        ? WordFileFormat.CSV
+                        : WordFileFormat.NDJSON;
+        ImportResultDTO result = sensitiveWordImportService.importWords(new InputStreamReader(body, charset), format);
+        return new ApiResult<>(ApiCode.OK, result);
+    }
+
     /**
      * Update an existing word/phrase by its ID.
      * <p>Body example: <pre>{ "word": "order by" }</pre></p>
@@ -142,10 +262,135 @@ public class SensitiveWordController {
     )
     @ApiResponses(
             {
-                    @ApiResponse(responseCode = "200", description = "Sanitized")
+                    @ApiResponse(responseCode = "200", description = "Sanitized"),
+                    @ApiResponse(responseCode = "503", description = "Dictionary not loaded yet")
             }
     )
     public ApiResult<String> sanitize(@Valid @RequestBody SanitizeRequestDTO sanitizeRequestDTO) {
         return new ApiResult<>(ApiCode.OK, sensitiveWordService.sanitize(sanitizeRequestDTO.getInput()));
     }
+
+    /**
+     * Sanitize many texts in one request.
+     * <p>Body example: <pre>{ "inputs": ["Select * from users", "hello"] }</pre></p>
+     * <p>All texts are sanitized against the same dictionary version and returned in the same order.</p>
+     *
+     * @param sanitizeBatchRequestDTO DTO containing the texts to sanitize
+     * @return {@link ApiResult} with the sanitized strings
+     * @throws ResponseStatusException with {@code 400} if there are more than {@code sanitize.batch.max-size} texts
+     */
+    @PostMapping(path = "/sanitize/batch", consumes = "application/json")
+    @Operation(
+            summary = "Sanitize many strings",
+            description = "Send JSON with an 'inputs' array. Returns the sanitized strings in the same order. "
+                    + "The number of inputs is limited by 'sanitize.batch.max-size'."
+    )
+    @ApiResponses(
+            {
+                    @ApiResponse(responseCode = "200", description = "Sanitized"),
+                    @ApiResponse(responseCode = "400", description = "Empty or too large batch"),
+                    @ApiResponse(responseCode = "503", description = "Dictionary not loaded yet")
+            }
+    )
+    public ApiResult<List<String>> sanitizeBatch(@Valid @RequestBody SanitizeBatchRequestDTO sanitizeBatchRequestDTO) {
+        try {
+            return new ApiResult<>(ApiCode.OK, sensitiveWordService.sanitizeAll(sanitizeBatchRequestDTO.getInputs()));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Find where sensitive words/phrases occur in a string, without masking it.
+     * <p>Body example: <pre>{ "input": "Select * from users order by name" }</pre></p>
+     * <p>Returns parallel arrays: match {@code i} covers chars {@code [starts[i], ends[i])} and is the stored
+     * word with ID {@code termIds[i]}.</p>
+     *
+     * @param sanitizeRequestDTO DTO containing the text to scan
+     * @return {@link ApiResult} with the match spans
+     */
+    @PostMapping(path = "/matches", consumes = "application/json")
+    @Operation(
+            summary = "Find sensitive words in a string",
+            description = "Send JSON with a single 'input' field. Returns start/end offsets and term IDs of every match."
+    )
+    @ApiResponses(
+            {
+                    @ApiResponse(responseCode = "200", description = "Matches found (possibly none)"),
+                    @ApiResponse(responseCode = "503", description = "Dictionary not loaded yet")
+            }
+    )
+    public ApiResult<MatchSpans> findMatches(@Valid @RequestBody SanitizeRequestDTO sanitizeRequestDTO) {
+        return new ApiResult<>(ApiCode.OK, sensitiveWordService.findMatches(sanitizeRequestDTO.getInput()));
+    }
+
+    /**
+     * Check whether a string contains any sensitive word/phrase, without masking it.
+     * <p>Body example: <pre>{ "input": "Select * from users" }</pre></p>
+     * <p>Stops at the first match, so it is much cheaper than sanitizing when only a yes/no is needed.</p>
+     *
+     * @param sanitizeRequestDTO DTO containing the text to check
+     * @return {@link ApiResult} with the result and the ID of the first term found
+     */
+    @PostMapping(path = "/detect", consumes = "application/json")
+    @Operation(
+            summary = "Detect sensitive words in a string",
+            description = "Send JSON with a single 'input' field. Returns whether any stored word/phrase occurs "
+                    + "and the ID of the first one found."
+    )
+    @ApiResponses(
+            {
+                    @ApiResponse(responseCode = "200", description = "Checked"),
+                    @ApiResponse(responseCode = "503", description = "Dictionary not loaded yet")
+            }
+    )
+    public ApiResult<DetectResultDTO> detect(@Valid @RequestBody SanitizeRequestDTO sanitizeRequestDTO) {
+        OptionalLong termId = sensitiveWordService.findFirstMatch(sanitizeRequestDTO.getInput());
+        DetectResultDTO result = termId.isPresent()
+                ? new DetectResultDTO(true, termId.getAsLong())
+                : new DetectResultDTO(false, null);
+        return new ApiResult<>(ApiCode.OK, result);
+    }
+
+    /**
+     * Sanitize a large raw text body, streaming the result back as it is produced.
+     * <p>
+     * Unlike {@link #sanitize(SanitizeRequestDTO)} the text is never held in memory as a whole, so this suits
+     * big SQL exports. The charset of the request (UTF-8 if not given) is used for the response too. The stream
+     * runs as long as it takes: see {@code spring.mvc.async.request-timeout}.
+     * </p>
+     *
+     * @param body    the raw text to sanitize
+     * @param headers request headers, used to pick the charset
+     * @return the sanitized text as {@code text/plain}
+     * @throws DictionaryUnavailableException with {@code 503} if no dictionary is loaded yet
+     */
+    @PostMapping(
+            path = "/sanitize/stream",
+            consumes = {MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE},
+            produces = MediaType.TEXT_PLAIN_VALUE
+    )
+    @Operation(
+            summary = "Sanitize a large text stream",
+            description = "Send the raw text as the body (text/plain or application/octet-stream). "
+                    + "The sanitized text is streamed back as text/plain."
+    )
+    @ApiResponses(
+            {
+                    @ApiResponse(responseCode = "200", description = "Sanitized"),
+                    @ApiResponse(responseCode = "503", description = "Dictionary not loaded yet")
+            }
+    )
+    public ResponseEntity<StreamingResponseBody> sanitizeStream(InputStream body, @RequestHeader HttpHeaders headers) {
+        // Refuse now: once streaming starts the 200 is already sent.
+        sensitiveWordService.requireDictionary();
+        MediaType contentType = headers.getContentType();
+        Charset charset = contentType != null && contentType.getCharset() != null
+                ? contentType.getCharset()
+                : StandardCharsets.UTF_8;
+        StreamingResponseBody responseBody = out -> sensitiveWordService.sanitizeStream(body, out, charset);
+        return ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, charset))
+                .body(responseBody);
+    }
 }
@@ -0,0 +1,16 @@
+package org.example.sqlsanitize.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Value;
+
+/** Response payload of the detect endpoint. */
+@Value
+@Schema(description = "Whether a text contains any sensitive word/phrase.")
+public class DetectResultDTO {
+
+    @Schema(description = "True if at least one sensitive word/phrase was found.", example = "true")
+    boolean sensitive;
+
+    @Schema(description = "ID of the first sensitive word found; null if none.", example = "1")
+    Long termId;
+}
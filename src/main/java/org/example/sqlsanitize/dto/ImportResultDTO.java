@@ -0,0 +1,19 @@
+package org.example.sqlsanitize.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Value;
+
+/** Response payload of the bulk import endpoint. */
+@Value
+@Schema(description = "What a bulk import did with the uploaded terms.")
+public class ImportResultDTO {
+
+    @Schema(description = "Terms newly stored.", example = "39812")
+    long inserted;
+
+    @Schema(description = "Terms already stored, or repeated within the upload.", example = "180")
+    long skipped;
+
+    @Schema(description = "Lines that couldn't be parsed or hold a blank term.", example = "8")
+    long rejected;
+}
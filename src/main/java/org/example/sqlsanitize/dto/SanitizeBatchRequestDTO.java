@@ -0,0 +1,28 @@
+package org.example.sqlsanitize.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request payload for the batch sanitize endpoint.
+ * The texts are sanitized in order and returned in the same order.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Payload for sanitizing many texts in one request")
+public class SanitizeBatchRequestDTO {
+
+    @Schema(
+            description = "Texts to sanitize",
+            example = "[\"Select * from users\", \"hello world\"]"
+    )
+    @NotEmpty(message = "inputs must not be empty")
+    private List<@NotNull(message = "inputs must not contain null") String> inputs;
+}
@@ -0,0 +1,564 @@
+package org.example.sqlsanitize.engine;
+
+import org.example.sqlsanitize.model.SensitiveWord;
+import org.example.sqlsanitize.util.WordUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Single-pass Aho-Corasick matcher for the configured sensitive words/phrases.
+ *
+ * <p>The automaton is compiled once per dictionary version; after that, sanitizing a text costs
+ * O(text length) no matter how many terms are stored.</p>
+ *
+ * <p>Matching follows the same rules as {@link WordUtils#buildBoundaryRegex(String)}:</p>
+ * <ul>
+ *   <li>Case-insensitive.</li>
+ *   <li>A match must be preceded by a non-word char (or start of text) and followed by a non-word char
+ *       (or end of text), so "select" won't match inside "selected". Next to a pure word any letter or digit counts
+ *       as a word char, so "caf" won't match inside "café"; next to a phrase or symbol term only {@code [A-Za-z0-9_]}
+ *       does, so "order by" still matches in "éorder by".</li>
+ *   <li>The longest term wins: at any position a phrase like "select * from" is masked before "select".
+ *       When two matches overlap, both are masked in full (one span covering their union), so no part of a
+ *       sensitive term is ever left showing.</li>
+ * </ul>
+ *
+ * <p>A {@link Prefilter} built along with the automaton finds where a match could start. Text that can't contain
+ * any match is returned as-is without touching the automaton or allocating. Unless the dictionary is so dense that
+ * nearly every word could start a match, stretches of text in between matches are skipped the same way.</p>
+ *
+ * <p>Instances are immutable and safe to share between threads.</p>
+ */
+public final class AhoCorasickEngine {
+
+    /** Char used to mask matched terms. */
+    static final char MASK_CHAR = '*';
+
+    /** Masks appended in runs of up to this many chars, instead of one char per call. */
+    private static final String MASK_RUN = String.valueOf(MASK_CHAR).repeat(64);
+
+    /** Returned by {@link #findFirst(CharSequence)} when nothing matches. */
+    public static final long NO_MATCH = Long.MIN_VALUE;
+
+    /** The compiled automaton. */
+    private final DoubleArrayTrie trie;
+
+    /** Number of distinct terms in the automaton. */
+    private final int termCount;
+
+    /** Length of the longest term; no match can be longer than this. */
+    private final int maxTermLength;
+
+    /** Rules out text that can't contain a match before the automaton sees it. */
+    private final Prefilter prefilter;
+
+    /** Where the prefilter's verdicts on whole inputs are counted. */
+    private final PrefilterStats prefilterStats;
+
+    AhoCorasickEngine(DoubleArrayTrie trie) {
+        this(trie, Prefilter.build(trie), new PrefilterStats());
+    }
+
+    private AhoCorasickEngine(DoubleArrayTrie trie, Prefilter prefilter, PrefilterStats prefilterStats) {
+        this.trie = trie;
+        this.termCount = trie.termCount();
+        this.maxTermLength = trie.maxTermLength();
+        this.prefilter = prefilter;
+        this.prefilterStats = prefilterStats;
+    }
+
+    /**
+     * Compile the given words/phrases into an automaton.
+     * <p>Blank entries are ignored, and duplicates (ignoring case) are only added once.</p>
+     *
+     * @param words the dictionary to compile
+     * @return a ready-to-use engine
+     */
+    public static AhoCorasickEngine compile(Collection<SensitiveWord> words) {
+        return compile(words, TrieStorage.HEAP, null);
+    }
+
+    /**
+     * Compile the given words/phrases into an automaton whose tables are kept in {@code storage}.
+     * <p>With {@link TrieStorage#DIRECT} or {@link TrieStorage#MAPPED} the tables live outside the heap, so heap
+     * usage no longer grows with the dictionary; only compiling uses temporary heap arrays.</p>
+     *
+     * @param words     the dictionary to compile
+     * @param storage   where to keep the tables
+     * @param directory where {@link TrieStorage#MAPPED} creates its file; ignored otherwise
+     * @return a ready-to-use engine
+     * @throws UncheckedIOException if the mapped file can't be created
+     */
+    public static AhoCorasickEngine compile(Collection<SensitiveWord> words, TrieStorage storage, Path directory) {
+        try {
+            return new AhoCorasickEngine(DoubleArrayTrie.build(words, storage, directory));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map dictionary file in " + directory, e);
+        }
+    }
+
+    /**
+     * Mask every stored word/phrase found in {@code input} with asterisks (same length as the match).
+     *
+     * @param input the text to sanitize; returned as-is if null/empty
+     * @return sanitized text, or the same instance if nothing matched
+     */
+    public String sanitize(String input) {
+        if (input == null || input.isEmpty() || termCount == 0) return input;
+        int from = firstCandidate(input);
+        if (from < 0) return input;
+
+        ScratchSpace scratch = ScratchSpace.acquire();
+        try {
+            CharArrayMasker masker = scratch.masker.reset(input);
+            findMatches(input, from, input.length(), masker, scratch);
+            return masker.finish();
+        } catch (IOException e) {
+            // Only a char array is written to here, which never throws.
+            throw new UncheckedIOException(e);
+        } finally {
+            scratch.release();
+        }
+    }
+
+    /**
+     * Same as {@link #sanitize(String)}, but splits the text into chunks of about {@code chunkSize} chars and
+     * scans them in parallel on {@code pool}. The result is identical to the sequential one.
+     *
+     * @param input     the text to sanitize; returned as-is if null/empty
+     * @param pool      pool that runs the chunk scans
+     * @param chunkSize target chunk size in chars; inputs not larger than this are sanitized sequentially
+     * @return sanitized text, or the same instance if nothing matched
+     */
+    public String sanitizeParallel(String input, ForkJoinPool pool, int chunkSize) {
+        if (input == null || input.length() <= chunkSize || termCount == 0) return sanitize(input);
+        int from = firstCandidate(input);
+        if (from < 0) return input;
+        return ParallelSanitizer.sanitize(this, input, from, pool, chunkSize);
+    }
+
+    /**
+     * Mask every stored word/phrase found in {@code input} and append the result to {@code out}.
+     * <p>Unmatched runs are appended straight from {@code input}, so no intermediate copy of the text is made.</p>
+     *
+     * @param input the text to sanitize
+     * @param out   where the sanitized text is appended
+     * @throws IOException if appending to {@code out} fails
+     */
+    public void sanitize(CharSequence input, Appendable out) throws IOException {
+        int from = termCount == 0 ? -1 : firstCandidate(input);
+        if (from < 0) {
+            out.append(input);
+            return;
+        }
+        ScratchSpace scratch = ScratchSpace.acquire();
+        try {
+            MaskWriter writer = new MaskWriter(input, out);
+            findMatches(input, from, input.length(), writer, scratch);
+            writer.finish();
+        } finally {
+            scratch.release();
+        }
+    }
+
+    /**
+     * Find where the stored words/phrases occur in {@code input}, without building a masked string.
+     * <p>Returns exactly the spans {@link #sanitize(String)} would mask.</p>
+     *
+     * @param input the text to scan; null/empty gives no spans
+     * @return the matches in text order
+     */
+    public MatchSpans findSpans(CharSequence input) {
+        if (input == null || input.isEmpty() || termCount == 0) return MatchSpans.EMPTY;
+        int from = firstCandidate(input);
+        if (from < 0) return MatchSpans.EMPTY;
+
+        SpanCollector collector = new SpanCollector();
+        ScratchSpace scratch = ScratchSpace.acquire();
+        try {
+            findMatches(input, from, input.length(), collector, scratch);
+        } catch (IOException e) {
+            // The collector only fills arrays and never throws.
+            throw new UncheckedIOException(e);
+        } finally {
+            scratch.release();
+        }
+        return collector.toSpans();
+    }
+
+    /**
+     * Find the spans of the matches that start in {@code [from, to)}, for one chunk of a
+     * {@link ParallelSanitizer} scan. Spans may end past {@code to}; overlapping spans of neighbouring chunks are
+     * left for the caller to merge. Not counted in the prefilter stats: the caller counts the whole input once.
+     */
+    MatchSpans findSpans(CharSequence input, int from, int to) {
+        int first = prefilter.nextCandidate(input, from);
+        if (first < 0 || first >= to) return MatchSpans.EMPTY;
+
+        SpanCollector collector = new SpanCollector();
+        ScratchSpace scratch = ScratchSpace.acquire();
+        try {
+            findMatches(input, first, to, collector, scratch);
+        } catch (IOException e) {
+            // The collector only fills arrays and never throws.
+            throw new UncheckedIOException(e);
+        } finally {
+            scratch.release();
+        }
+        return collector.toSpans();
+    }
+
+    /**
+     * Check whether {@code input} contains any stored word/phrase, stopping at the first one found.
+     * <p>Cheaper than {@link #findSpans(CharSequence)} when only a yes/no is needed: it returns as soon as a
+     * term completes (so not necessarily the longest one) and allocates nothing.</p>
+     *
+     * @param input the text to scan
+     * @return ID of the first term found, {@link #NO_MATCH} if there is none
+     */
+    public long findFirst(CharSequence input) {
+        if (input == null || termCount == 0) return NO_MATCH;
+        int from = firstCandidate(input);
+        if (from < 0) return NO_MATCH;
+
+        int n = input.length();
+        DoubleArrayTrie trie = this.trie;
+        boolean skipAhead = prefilter.isSelective();
+        int state = DoubleArrayTrie.ROOT;
+        for (int i = from; i < n; i++) {
+            state = trie.step(state, fold(input.charAt(i)));
+            int end = i + 1;
+            if (state == DoubleArrayTrie.ROOT && skipAhead) {
+                // Nothing in progress: skip ahead to where the next match could start.
+                int next = prefilter.nextCandidate(input, end);
+                if (next < 0) break;
+                i = next - 1;
+                continue;
+            }
+            if (end < n && WordUtils.isAsciiWordChar(input.charAt(end))) continue;
+
+            for (int hit = trie.firstHit(state); hit != DoubleArrayTrie.NONE; hit = trie.nextHit(hit)) {
+                if (end < n && trie.joinsWord(hit, input.charAt(end))) continue;
+                int start = end - trie.termLength(hit);
+                if (start > 0 && trie.joinsWord(hit, input.charAt(start - 1))) continue;
+                return trie.termId(hit);
+            }
+        }
+        return NO_MATCH;
+    }
+
+    /**
+     * Ask the prefilter where the first match in {@code input} could start, and count the answer.
+     *
+     * @return that position, or {@code -1} if {@code input} can't contain a match
+     */
+    private int firstCandidate(CharSequence input) {
+        int from = prefilter.nextCandidate(input, 0);
+        if (from < 0) {
+            prefilterStats.recordMiss();
+        } else {
+            prefilterStats.recordHit();
+        }
+        return from;
+    }
+
+    /**
+     * Scan {@code input} from {@code from} (where the first match could start) and report the masked spans of the
+     * matches starting before {@code to} in order: the longest match at each start, with overlapping ones merged.
+     */
+    private void findMatches(CharSequence input, int from, int to, MatchHandler handler, ScratchSpace scratch)
+            throws IOException {
+        int n = input.length();
+        // Matches starting before 'to' end by here.
+        int scanEnd = (int) Math.min(n, (long) to - 1 + maxTermLength);
+        // Longest valid match starting at each position that is still undecided. Only the last maxTermLength
+        // positions can be undecided at any time, so a small ring buffer is enough.
+        int ringMask = Integer.highestOneBit(maxTermLength) * 2 - 1;
+        scratch.prepareRings(ringMask + 1);
+        int[] longestAt = scratch.longestAt;
+        long[] termIdAt = scratch.termIdAt;
+        OverlapMerger merger = scratch.merger.reset();
+
+        DoubleArrayTrie trie = this.trie;
+        boolean skipAhead = prefilter.isSelective();
+        int cursor = from;   // first position not yet decided
+        int state = DoubleArrayTrie.ROOT;
+
+        for (int i = from; i < scanEnd; i++) {
+            state = trie.step(state, fold(input.charAt(i)));
+            int end = i + 1;
+
+            if (state == DoubleArrayTrie.ROOT && skipAhead) {
+                // No term is in progress, so nothing before end can grow into a longer match: settle it all and
+                // skip ahead to where the next match could start. Every ring slot is empty after that.
+                settle(cursor, end, longestAt, termIdAt, ringMask, merger, handler);
+                int next = prefilter.nextCandidate(input, end);
+                if (next < 0 || next >= to) return;
+                cursor = next;
+                i = next - 1;
+                continue;
+            }
+
+            if (end == n || !WordUtils.isAsciiWordChar(input.charAt(end))) {
+                // Walk every term ending here, longest first.
+                for (int hit = trie.firstHit(state); hit != DoubleArrayTrie.NONE; hit = trie.nextHit(hit)) {
+                    if (end < n && trie.joinsWord(hit, input.charAt(end))) continue;
+                    int length = trie.termLength(hit);
+                    int start = end - length;
+                    if (start < cursor) continue;
+                    if (start >= to) break;   // shorter terms start even later
+                    if (start > 0 && trie.joinsWord(hit, input.charAt(start - 1))) continue;
+                    int slot = start & ringMask;
+                    if (length > longestAt[slot]) {
+                        longestAt[slot] = length;
+                        termIdAt[slot] = trie.termId(hit);
+                    }
+                }
+            }
+
+            // Anything starting before this limit can't be the start of a later (longer) match.
+            cursor = settle(cursor, end == scanEnd ? to : end + 1 - maxTermLength, longestAt, termIdAt, ringMask,
+                    merger, handler);
+        }
+        // A span starting before 'to' may end after it.
+        merger.flushEndingBy(n, handler);
+    }
+
+    /**
+     * Pass the matches starting in {@code [cursor, limit)} to {@code merger} and clear their ring slots, then
+     * report the merged span if nothing starting at or after {@code limit} can still overlap it.
+     *
+     * @return the first position not yet decided
+     */
+    private static int settle(int cursor, int limit, int[] longestAt, long[] termIdAt, int ringMask,
+                              OverlapMerger merger, MatchHandler handler) throws IOException {
+        for (; cursor < limit; cursor++) {
+            int slot = cursor & ringMask;
+            int len = longestAt[slot];
+            if (len == 0) continue;
+            longestAt[slot] = 0;
+            merger.add(cursor, len, termIdAt[slot], handler);
+        }
+        merger.flushEndingBy(limit, handler);
+        return cursor;
+    }
+
+    /** @return number of distinct terms compiled into this engine */
+    public int getTermCount() {
+        return termCount;
+    }
+
+    /** @return length of the longest term, or 0 for an empty dictionary */
+    public int getMaxTermLength() {
+        return maxTermLength;
+    }
+
+    /** @return number of automaton states (including unused gaps in the double array) */
+    public int getStateCount() {
+        return trie.size();
+    }
+
+    /**
+     * @return approximate memory held by the automaton's tables and the prefilter, in bytes; use it to size
+     * containers
+     */
+    public long getFootprintBytes() {
+        return trie.footprintBytes() + prefilter.footprintBytes();
+    }
+
+    /** @return where the automaton's tables are kept */
+    public TrieStorage getStorage() {
+        return trie.storage();
+    }
+
+    /** @return the counters the prefilter's verdicts on whole inputs go to */
+    public PrefilterStats getPrefilterStats() {
+        return prefilterStats;
+    }
+
+    /**
+     * Returns an engine sharing this one's compiled tables that counts prefilter verdicts in {@code stats}.
+     *
+     * @param stats where to count from now on
+     * @return the new engine, or this one if it already uses {@code stats}
+     */
+    public AhoCorasickEngine withPrefilterStats(PrefilterStats stats) {
+        if (stats == prefilterStats) return this;
+        return new AhoCorasickEngine(trie, prefilter, stats);
+    }
+
+    /**
+     * Start sanitizing a stream of text whose sanitized form is written to {@code out}.
+     *
+     * @param out where sanitized text is written
+     * @return a new, single-use {@link StreamingSanitizer}
+     */
+    public StreamingSanitizer newStreamingSanitizer(Writer out) {
+        return new StreamingSanitizer(this, out);
+    }
+
+    /** @return the compiled automaton, for the scanners in this package */
+    DoubleArrayTrie trie() {
+        return trie;
+    }
+
+    /**
+     * Case folding used for both terms and input, so matching is case-insensitive char by char.
+     * <p>ASCII chars, i.e. nearly all SQL, are folded with a table lookup; see {@link WordUtils#foldCase(char)}.</p>
+     */
+    static char fold(char c) {
+        return WordUtils.foldCase(c);
+    }
+
+    /** Receives the selected matches of one scan, in text order. */
+    private interface MatchHandler {
+        void onMatch(int start, int end, long termId) throws IOException;
+    }
+
+    /**
+     * Merges matches that overlap into one span, fed in start order. The span reports the ID of its longest
+     * term (the first one if several are equally long). Lives in {@link ScratchSpace} and is reused via
+     * {@link #reset}.
+     */
+    static final class OverlapMerger {
+        private boolean pending;
+        private int start;
+        private int end;
+        private int longest;
+        private long termId;
+
+        OverlapMerger reset() {
+            pending = false;
+            return this;
+        }
+
+        void add(int matchStart, int length, long matchTermId, MatchHandler handler) throws IOException {
+            if (pending && matchStart < end) {
+                end = Math.max(end, matchStart + length);
+                if (length > longest) {
+                    longest = length;
+                    termId = matchTermId;
+                }
+                return;
+            }
+            flush(handler);
+            pending = true;
+            start = matchStart;
+            end = matchStart + length;
+            longest = length;
+            termId = matchTermId;
+        }
+
+        /** Report the pending span if it ends by {@code limit}, i.e. no later match can overlap it any more. */
+        void flushEndingBy(int limit, MatchHandler handler) throws IOException {
+            if (pending && end <= limit) flush(handler);
+        }
+
+        private void flush(MatchHandler handler) throws IOException {
+            if (!pending) return;
+            pending = false;
+            handler.onMatch(start, end, termId);
+        }
+    }
+
+    /**
+     * Builds the sanitized String in one pre-sized char buffer: unmatched runs are bulk-copied from the input
+     * and matches filled with the mask char. The buffer is only taken on the first match, so clean input
+     * allocates nothing and is returned as-is. Lives in {@link ScratchSpace} and is reused via {@link #reset}.
+     */
+    static final class CharArrayMasker implements MatchHandler {
+        private final ScratchSpace scratch;
+        private String input;
+        private char[] out;
+        /** First input position not yet copied to {@code out}. */
+        private int copied;
+
+        CharArrayMasker(ScratchSpace scratch) {
+            this.scratch = scratch;
+        }
+
+        CharArrayMasker reset(String input) {
+            this.input = input;
+            this.out = null;
+            this.copied = 0;
+            return this;
+        }
+
+        @Override
+        public void onMatch(int start, int end, long termId) {
+            if (out == null) out = scratch.chars(input.length());
+            input.getChars(copied, start, out, copied);
+            Arrays.fill(out, start, end, MASK_CHAR);
+            copied = end;
+        }
+
+        String finish() {
+            String in = input;
+            input = null;
+            if (out == null) return in;
+            char[] buf = out;
+            out = null;
+            int n = in.length();
+            in.getChars(copied, n, buf, copied);
+            return new String(buf, 0, n);
+        }
+    }
+
+    /** Appends unmatched runs of the input and masks to an {@link Appendable}. */
+    private static final class MaskWriter implements MatchHandler {
+        private final CharSequence input;
+        private final Appendable out;
+        /** First input position not yet written to {@code out}. */
+        private int copied;
+
+        MaskWriter(CharSequence input, Appendable out) {
+            this.input = input;
+            this.out = out;
+        }
+
+        @Override
+        public void onMatch(int start, int end, long termId) throws IOException {
+            out.append(input, copied, start);
+            for (int p = start; p < end; p += MASK_RUN.length()) {
+                out.append(MASK_RUN, 0, Math.min(MASK_RUN.length(), end - p));
+            }
+            copied = end;
+        }
+
+        void finish() throws IOException {
+            out.append(input, copied, input.length());
+        }
+    }
+
+    /** Collects matches into growable primitive arrays. */
+    private static final class SpanCollector implements MatchHandler {
+        private int[] starts = new int[8];
+        private int[] ends = new int[8];
+        private long[] termIds = new long[8];
+        private int count;
+
+        @Override
+        public void onMatch(int start, int end, long termId) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                ends = Arrays.copyOf(ends, count * 2);
+                termIds = Arrays.copyOf(termIds, count * 2);
+            }
+            starts[count] = start;
+            ends[count] = end;
+            termIds[count] = termId;
+            count++;
+        }
+
+        MatchSpans toSpans() {
+            if (count == 0) return MatchSpans.EMPTY;
+            return new MatchSpans(Arrays.copyOf(starts, count), Arrays.copyOf(ends, count), Arrays.copyOf(termIds, count));
+        }
+    }
+}
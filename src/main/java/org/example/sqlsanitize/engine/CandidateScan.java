@@ -0,0 +1,32 @@
+package org.example.sqlsanitize.engine;
+
+/**
+ * Optional SIMD stage of {@link Prefilter#nextCandidate}: finds the next position where a match could start.
+ *
+ * <p>The implementation, {@link VectorCandidateScan}, uses the incubating {@code jdk.incubator.vector} module. That
+ * module is only there when the JVM is started with {@code --add-modules jdk.incubator.vector}, so it is loaded
+ * reflectively, and everything falls back to the scalar loop when it can't be.</p>
+ */
+abstract class CandidateScan {
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    /**
+     * @return the first position at or after {@code from} where a match could start according to {@code prefilter},
+     * or {@code -1} if there is none; always the same as {@link Prefilter#nextCandidateScalar}
+     */
+    abstract int nextCandidate(Prefilter prefilter, String input, int from);
+
+    /** @return the vectorized scan, or {@code null} if this JVM can't run it */
+    static CandidateScan vector() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) return null;
+        try {
+            return (CandidateScan) Class.forName(CandidateScan.class.getPackageName() + ".VectorCandidateScan")
+                    .getDeclaredConstructor()
+                    .newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // Module present but unusable (e.g. not resolved for this class loader): stay scalar.
+            return null;
+        }
+    }
+}
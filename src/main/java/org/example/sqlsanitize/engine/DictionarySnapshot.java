@@ -0,0 +1,19 @@
+package org.example.sqlsanitize.engine;
+
+import java.util.List;
+
+/**
+ * Immutable view of the sensitive word dictionary as it was at one point in time.
+ * <p>
+ * A new snapshot is built whenever the stored words/phrases change and then swapped in as a whole, so
+ * readers always see one consistent version without touching the database.
+ *
+ * @param version       increasing number identifying this snapshot ({@code 0} = nothing loaded yet)
+ * @param sourceVersion the stored dictionary version the snapshot was built from
+ * @param engine        the compiled matcher for this version
+ */
+public record DictionarySnapshot(long version, long sourceVersion, AhoCorasickEngine engine) {
+
+    /** Placeholder used until the first dictionary has been loaded. */
+    public static final DictionarySnapshot EMPTY = new DictionarySnapshot(0L, 0L, AhoCorasickEngine.compile(List.of()));
+}
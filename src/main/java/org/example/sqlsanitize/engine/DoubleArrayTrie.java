@@ -0,0 +1,609 @@
+package org.example.sqlsanitize.engine;
+
+import org.example.sqlsanitize.model.SensitiveWord;
+import org.example.sqlsanitize.util.WordUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick automaton stored as a double-array trie: a handful of int tables instead of node objects.
+ *
+ * <p>States are indexes into the tables. The transition from state {@code s} on a char with alphabet code
+ * {@code c} goes to {@code t = base[s] + c}, and exists only if {@code check[t] == s}. Failure and output
+ * links are plain int tables too, so a dictionary costs about 20 bytes per state plus a fixed 128 KB char
+ * table, with no object headers or boxed chars.</p>
+ *
+ * <p>On the heap the tables are plain arrays. For the other {@link TrieStorage}s they are views into one direct or
+ * memory-mapped buffer laid out as:</p>
+ * <pre>
+ *   header    magic, format, cell count, term count, max term length, padding   (6 ints)
+ *   termIds   long[term count]
+ *   alphabet  char[65536]
+ *   base, check, fail, output, terminal    int[cell count] each
+ *   termLengths                            int[term count], top bit set for phrase and symbol terms
+ * </pre>
+ *
+ * <p>The trie is built straight from the sorted terms, breadth first, so no pointer-based trie is ever
+ * materialized. Instances are immutable; lookups only use absolute gets and are safe to share.</p>
+ */
+abstract class DoubleArrayTrie {
+
+    /** The start state. */
+    static final int ROOT = 0;
+
+    /** "No state" marker for output links. */
+    static final int NONE = -1;
+
+    /** Marks a cell that no state owns yet (only used while building). */
+    private static final int FREE = -1;
+
+    /** First int of the binary layout ("SQLD"). */
+    private static final int MAGIC = 0x53514C44;
+
+    /** Version of the binary layout. */
+    private static final int FORMAT = 2;
+
+    /** Set in a term length for terms that are not {@linkplain WordUtils#isWordOnly pure words}. */
+    private static final int NOT_WORD_ONLY = 1 << 31;
+
+    private static final int HEADER_BYTES = 6 * Integer.BYTES;
+
+    private static final int ALPHABET_SIZE = Character.MAX_VALUE + 1;
+
+    private final int cellCount;
+    private final int termCount;
+    private final int maxTermLength;
+    private final TrieStorage storage;
+
+    private DoubleArrayTrie(int cellCount, int termCount, int maxTermLength, TrieStorage storage) {
+        this.cellCount = cellCount;
+        this.termCount = termCount;
+        this.maxTermLength = maxTermLength;
+        this.storage = storage;
+    }
+
+    /**
+     * Build the automaton. Terms are trimmed and folded with {@link AhoCorasickEngine#fold(char)}; blank ones
+     * are skipped and, of duplicates, the first one wins.
+     *
+     * @param storage   where to keep the tables
+     * @param directory where {@link TrieStorage#MAPPED} creates its file; ignored otherwise
+     * @throws IOException if the mapped file can't be created
+     */
+    static DoubleArrayTrie build(Collection<SensitiveWord> words, TrieStorage storage, Path directory) throws IOException {
+        // Collect folded terms; a stable sort keeps the first of any duplicates in front.
+        List<Key> keys = new ArrayList<>(words.size());
+        for (SensitiveWord w : words) {
+            if (w.getWord() == null) continue;
+            String term = w.getWord().trim();
+            if (term.isEmpty()) continue;
+            char[] folded = new char[term.length()];
+            for (int i = 0; i < folded.length; i++) {
+                folded[i] = AhoCorasickEngine.fold(term.charAt(i));
+            }
+            keys.add(new Key(new String(folded), w.getId() == null ? -1L : w.getId()));
+        }
+        keys.sort(Comparator.comparing(Key::text));
+
+        List<Key> unique = new ArrayList<>(keys.size());
+        for (Key k : keys) {
+            if (unique.isEmpty() || !unique.get(unique.size() - 1).text().equals(k.text())) {
+                unique.add(k);
+            }
+        }
+
+        DoubleArrayTrie onHeap = new Builder(unique).build();
+        return switch (storage) {
+            case HEAP -> onHeap;
+            case DIRECT -> onHeap.copyInto(ByteBuffer.allocateDirect(onHeap.byteSize()), TrieStorage.DIRECT);
+            case MAPPED -> onHeap.copyInto(mapNewFile(directory, onHeap.byteSize()), TrieStorage.MAPPED);
+        };
+    }
+
+    /** Write the binary layout into {@code buffer} (from index 0) and return a trie reading from it. */
+    private DoubleArrayTrie copyInto(ByteBuffer buffer, TrieStorage storage) {
+        ByteBuffer out = buffer.order(ByteOrder.nativeOrder());
+        writeTo(out);
+        return read(out, storage);
+    }
+
+    /**
+     * Write this trie in the binary layout into {@code out}, starting at index 0.
+     * {@code out} must use native byte order and have room for {@link #byteSize()} bytes.
+     */
+    abstract void writeTo(ByteBuffer out);
+
+    /** @return next state after reading the (already folded) char {@code c} in {@code state} */
+    abstract int step(int state, char c);
+
+    /** @return the direct child of {@code state} on the (already folded) char {@code c}, or {@link #NONE} */
+    abstract int child(int state, char c);
+
+    /** @return whether the (already folded) char {@code c} occurs in any term */
+    abstract boolean inAlphabet(char c);
+
+    /** @return the first state on the output chain of {@code state} that ends a term (longest first), or {@link #NONE} */
+    abstract int firstHit(int state);
+
+    /** @return the next (shorter) term-ending state after {@code hit}, or {@link #NONE} */
+    abstract int nextHit(int hit);
+
+    /** @return length of the term ending at {@code hit} */
+    abstract int termLength(int hit);
+
+    /** @return ID of the term ending at {@code hit} */
+    abstract long termId(int hit);
+
+    /** @return whether the term ending at {@code hit} is a {@linkplain WordUtils#isWordOnly pure word} */
+    abstract boolean wordOnly(int hit);
+
+    /**
+     * Check whether {@code c}, just before or after a match of the term ending at {@code hit}, runs into it, so the
+     * match doesn't count. Next to a pure word that is any {@linkplain WordUtils#isWordChar word char}; next to a
+     * phrase or symbol term only an {@linkplain WordUtils#isAsciiWordChar ASCII one}, as in the boundary regexes.
+     */
+    boolean joinsWord(int hit, char c) {
+        return c < 0x80 ? WordUtils.isAsciiWordChar(c) : WordUtils.isWordChar(c) && wordOnly(hit);
+    }
+
+    int termCount() {
+        return termCount;
+    }
+
+    int maxTermLength() {
+        return maxTermLength;
+    }
+
+    /** @return number of table cells (states plus unused gaps) */
+    int size() {
+        return cellCount;
+    }
+
+    TrieStorage storage() {
+        return storage;
+    }
+
+    /** @return approximate memory used by the tables, in bytes (array headers ignored) */
+    long footprintBytes() {
+        return layoutBytes(cellCount, termCount) - HEADER_BYTES;
+    }
+
+    /** @return size of this trie in the binary layout */
+    int byteSize() {
+        long size = layoutBytes(cellCount, termCount);
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Dictionary too large for one buffer: " + size + " bytes");
+        }
+        return (int) size;
+    }
+
+    private static long layoutBytes(int cellCount, int termCount) {
+        return HEADER_BYTES
+                + (long) Long.BYTES * termCount
+                + (long) Character.BYTES * ALPHABET_SIZE
+                + 5L * Integer.BYTES * cellCount
+                + (long) Integer.BYTES * termCount;
+    }
+
+    /**
+     * Create a trie that reads its tables straight from {@code data}, which must hold the binary layout
+     * (native byte order) from index 0. Nothing is copied.
+     *
+     * @throws IllegalArgumentException if {@code data} doesn't hold a trie in this format
+     */
+    static DoubleArrayTrie read(ByteBuffer data, TrieStorage storage) {
+        ByteBuffer in = data.duplicate().order(ByteOrder.nativeOrder());
+        if (in.limit() < HEADER_BYTES || in.getInt(0) != MAGIC || in.getInt(4) != FORMAT) {
+            throw new IllegalArgumentException("Not a dictionary trie in format " + FORMAT);
+        }
+        int cellCount = in.getInt(8);
+        int termCount = in.getInt(12);
+        int maxTermLength = in.getInt(16);
+        if (cellCount < 1 || termCount < 0 || layoutBytes(cellCount, termCount) > in.limit()) {
+            throw new IllegalArgumentException("Truncated dictionary trie");
+        }
+        return new Buffered(in, cellCount, termCount, maxTermLength, storage);
+    }
+
+    /**
+     * Map a new file of {@code size} bytes in {@code directory}. The file is deleted right away: the mapping stays
+     * valid and the pages are released once the buffer is collected. Where the OS won't delete a mapped file, it is
+     * removed on exit instead.
+     */
+    private static ByteBuffer mapNewFile(Path directory, int size) throws IOException {
+        Files.createDirectories(directory);
+        Path file = Files.createTempFile(directory, "dictionary-", ".bin");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } finally {
+            try {
+                Files.delete(file);
+            } catch (IOException e) {
+                file.toFile().deleteOnExit();
+            }
+        }
+    }
+
+    /** Tables in plain arrays on the heap; the fastest to read. */
+    private static final class Heap extends DoubleArrayTrie {
+        private final char[] alphabet;
+        private final int[] base;
+        private final int[] check;
+        private final int[] fail;
+        private final int[] output;
+        private final int[] terminal;
+        private final int[] termLengths;
+        private final long[] termIds;
+
+        Heap(char[] alphabet, int[] base, int[] check, int[] fail, int[] output, int[] terminal,
+             int[] termLengths, long[] termIds, int maxTermLength) {
+            super(check.length, termLengths.length, maxTermLength, TrieStorage.HEAP);
+            this.alphabet = alphabet;
+            this.base = base;
+            this.check = check;
+            this.fail = fail;
+            this.output = output;
+            this.terminal = terminal;
+            this.termLengths = termLengths;
+            this.termIds = termIds;
+        }
+
+        @Override
+        int step(int state, char c) {
+            int code = alphabet[c];
+            if (code == 0) return ROOT;   // no term contains this char, so every path fails back to the root
+            while (true) {
+                int t = base[state] + code;
+                if (t < check.length && check[t] == state) return t;
+                if (state == ROOT) return ROOT;
+                state = fail[state];
+            }
+        }
+
+        @Override
+        int child(int state, char c) {
+            int code = alphabet[c];
+            if (code == 0) return NONE;
+            int t = base[state] + code;
+            return t < check.length && check[t] == state ? t : NONE;
+        }
+
+        @Override
+        boolean inAlphabet(char c) {
+            return alphabet[c] != 0;
+        }
+
+        @Override
+        int firstHit(int state) {
+            return terminal[state] != 0 ? state : output[state];
+        }
+
+        @Override
+        int nextHit(int hit) {
+            return output[hit];
+        }
+
+        @Override
+        int termLength(int hit) {
+            return termLengths[terminal[hit] - 1] & ~NOT_WORD_ONLY;
+        }
+
+        @Override
+        long termId(int hit) {
+            return termIds[terminal[hit] - 1];
+        }
+
+        @Override
+        boolean wordOnly(int hit) {
+            return (termLengths[terminal[hit] - 1] & NOT_WORD_ONLY) == 0;
+        }
+
+        @Override
+        void writeTo(ByteBuffer out) {
+            out.putInt(0, MAGIC)
+                    .putInt(4, FORMAT)
+                    .putInt(8, check.length)
+                    .putInt(12, termLengths.length)
+                    .putInt(16, maxTermLength());
+
+            int offset = HEADER_BYTES;
+            out.slice(offset, Long.BYTES * termIds.length).order(out.order()).asLongBuffer().put(termIds);
+            offset += Long.BYTES * termIds.length;
+            out.slice(offset, Character.BYTES * ALPHABET_SIZE).order(out.order()).asCharBuffer().put(alphabet);
+            offset += Character.BYTES * ALPHABET_SIZE;
+            for (int[] table : new int[][]{base, check, fail, output, terminal}) {
+                out.slice(offset, Integer.BYTES * table.length).order(out.order()).asIntBuffer().put(table);
+                offset += Integer.BYTES * table.length;
+            }
+            out.slice(offset, Integer.BYTES * termLengths.length).order(out.order()).asIntBuffer().put(termLengths);
+        }
+    }
+
+    /** Tables read through views into one (direct or mapped) buffer holding the binary layout. */
+    private static final class Buffered extends DoubleArrayTrie {
+        /** The whole binary layout. */
+        private final ByteBuffer data;
+        private final CharBuffer alphabet;
+        private final IntBuffer base;
+        private final IntBuffer check;
+        private final IntBuffer fail;
+        private final IntBuffer output;
+        private final IntBuffer terminal;
+        private final IntBuffer termLengths;
+        private final LongBuffer termIds;
+
+        Buffered(ByteBuffer in, int cellCount, int termCount, int maxTermLength, TrieStorage storage) {
+            super(cellCount, termCount, maxTermLength, storage);
+            data = in;
+            int offset = HEADER_BYTES;
+            termIds = in.slice(offset, Long.BYTES * termCount).order(in.order()).asLongBuffer();
+            offset += Long.BYTES * termCount;
+            alphabet = in.slice(offset, Character.BYTES * ALPHABET_SIZE).order(in.order()).asCharBuffer();
+            offset += Character.BYTES * ALPHABET_SIZE;
+            IntBuffer[] tables = new IntBuffer[5];
+            for (int i = 0; i < tables.length; i++) {
+                tables[i] = in.slice(offset, Integer.BYTES * cellCount).order(in.order()).asIntBuffer();
+                offset += Integer.BYTES * cellCount;
+            }
+            base = tables[0];
+            check = tables[1];
+            fail = tables[2];
+            output = tables[3];
+            terminal = tables[4];
+            termLengths = in.slice(offset, Integer.BYTES * termCount).order(in.order()).asIntBuffer();
+        }
+
+        @Override
+        int step(int state, char c) {
+            int code = alphabet.get(c);
+            if (code == 0) return ROOT;
+            int cells = check.limit();
+            while (true) {
+                int t = base.get(state) + code;
+                if (t < cells && check.get(t) == state) return t;
+                if (state == ROOT) return ROOT;
+                state = fail.get(state);
+            }
+        }
+
+        @Override
+        int child(int state, char c) {
+            int code = alphabet.get(c);
+            if (code == 0) return NONE;
+            int t = base.get(state) + code;
+            return t < check.limit() && check.get(t) == state ? t : NONE;
+        }
+
+        @Override
+        boolean inAlphabet(char c) {
+            return alphabet.get(c) != 0;
+        }
+
+        @Override
+        int firstHit(int state) {
+            return terminal.get(state) != 0 ? state : output.get(state);
+        }
+
+        @Override
+        int nextHit(int hit) {
+            return output.get(hit);
+        }
+
+        @Override
+        int termLength(int hit) {
+            return termLengths.get(terminal.get(hit) - 1) & ~NOT_WORD_ONLY;
+        }
+
+        @Override
+        long termId(int hit) {
+            return termIds.get(terminal.get(hit) - 1);
+        }
+
+        @Override
+        boolean wordOnly(int hit) {
+            return (termLengths.get(terminal.get(hit) - 1) & NOT_WORD_ONLY) == 0;
+        }
+
+        @Override
+        void writeTo(ByteBuffer out) {
+            out.put(0, data, 0, byteSize());
+        }
+    }
+
+    /** A folded term and the ID of the word it came from. */
+    private record Key(String text, long id) {
+    }
+
+    /** Lays the sorted keys out in the double array, breadth first. */
+    private static final class Builder {
+
+        private final List<Key> keys;
+        private final char[] alphabet = new char[ALPHABET_SIZE];
+
+        private int[] base = new int[1024];
+        private int[] check = new int[1024];
+        private int[] fail = new int[1024];
+        private int[] output = new int[1024];
+        private int[] terminal = new int[1024];
+        private int used = 1;      // one past the highest occupied cell
+        private int nextFree = 1;  // every cell below this is occupied
+
+        Builder(List<Key> keys) {
+            this.keys = keys;
+            Arrays.fill(check, FREE);
+            check[ROOT] = ROOT;
+        }
+
+        Heap build() {
+            assignAlphabet();
+
+            int[] termLengths = new int[keys.size()];
+            long[] termIds = new long[keys.size()];
+            int maxTermLength = 0;
+            for (int i = 0; i < keys.size(); i++) {
+                String text = keys.get(i).text();
+                termLengths[i] = text.length() | (WordUtils.isWordOnly(text) ? 0 : NOT_WORD_ONLY);
+                termIds[i] = keys.get(i).id();
+                maxTermLength = Math.max(maxTermLength, text.length());
+            }
+
+            fail[ROOT] = ROOT;
+            output[ROOT] = NONE;
+
+            // Each entry: state, first key, last key (exclusive), depth. All keys in range share the state's prefix.
+            Queue<int[]> queue = new ArrayDeque<>();
+            queue.add(new int[]{ROOT, 0, keys.size(), 0});
+            int[] codes = new int[64];
+            int[] rangeStarts = new int[65];
+
+            while (!queue.isEmpty()) {
+                int[] node = queue.remove();
+                int state = node[0];
+                int lo = node[1];
+                int hi = node[2];
+                int depth = node[3];
+
+                // Keys are unique and sorted, so at most one ends here and it comes first.
+                if (terminal[state] != 0) lo++;
+
+                // Group the remaining keys by their char at 'depth'.
+                int childCount = 0;
+                for (int i = lo; i < hi; i++) {
+                    int code = alphabet[keys.get(i).text().charAt(depth)];
+                    if (childCount == 0 || codes[childCount - 1] != code) {
+                        if (childCount == codes.length) {
+                            codes = Arrays.copyOf(codes, childCount * 2);
+                            rangeStarts = Arrays.copyOf(rangeStarts, childCount * 2 + 1);
+                        }
+                        codes[childCount] = code;
+                        rangeStarts[childCount] = i;
+                        childCount++;
+                    }
+                }
+                if (childCount == 0) continue;
+                rangeStarts[childCount] = hi;
+
+                int b = findBase(codes, childCount);
+                base[state] = b;
+                // Mark terminals before linking: a failure target may sit on this same level, not yet dequeued.
+                for (int i = 0; i < childCount; i++) {
+                    int child = b + codes[i];
+                    check[child] = state;
+                    if (keys.get(rangeStarts[i]).text().length() == depth + 1) {
+                        terminal[child] = rangeStarts[i] + 1;
+                    }
+                    used = Math.max(used, child + 1);
+                }
+                while (nextFree < check.length && check[nextFree] != FREE) {
+                    nextFree++;
+                }
+
+                for (int i = 0; i < childCount; i++) {
+                    int child = b + codes[i];
+                    linkFailure(state, child, codes[i]);
+                    queue.add(new int[]{child, rangeStarts[i], rangeStarts[i + 1], depth + 1});
+                }
+            }
+
+            return new Heap(alphabet,
+                    Arrays.copyOf(base, used), Arrays.copyOf(check, used), Arrays.copyOf(fail, used),
+                    Arrays.copyOf(output, used), Arrays.copyOf(terminal, used),
+                    termLengths, termIds, maxTermLength);
+        }
+
+        /** Give every char used in a term a code 1..K, in char order (keeps children of a state sorted). */
+        private void assignAlphabet() {
+            boolean[] present = new boolean[ALPHABET_SIZE];
+            for (Key k : keys) {
+                for (int i = 0; i < k.text().length(); i++) {
+                    present[k.text().charAt(i)] = true;
+                }
+            }
+            char code = 0;
+            for (int c = 0; c < present.length; c++) {
+                if (present[c]) alphabet[c] = ++code;
+            }
+        }
+
+        /**
+         * Lowest base (>= 1) from the search start for which every child cell is free. Only free cells are
+         * tried for the first child. Once the scanned region is almost full, the search start moves past it
+         * for good, so holes no child set fits into are not rescanned for every state.
+         */
+        private int findBase(int[] codes, int count) {
+            int pos = Math.max(codes[0] + 1, nextFree) - 1;
+            int occupied = 0;
+            int firstFree = -1;
+            while (true) {
+                pos++;
+                ensureCapacity(pos + 1);
+                if (check[pos] != FREE) {
+                    occupied++;
+                    continue;
+                }
+                if (firstFree < 0) firstFree = pos;
+
+                int b = pos - codes[0];
+                ensureCapacity(b + codes[count - 1] + 1);
+                boolean fits = true;
+                for (int i = 1; i < count; i++) {
+                    if (check[b + codes[i]] != FREE) {
+                        fits = false;
+                        break;
+                    }
+                }
+                if (fits) {
+                    nextFree = occupied >= 0.95 * (pos - firstFree + 1) ? pos : firstFree;
+                    return b;
+                }
+            }
+        }
+
+        /** Set the failure and output link of {@code child}, reached from {@code parent} on {@code code}. */
+        private void linkFailure(int parent, int child, int code) {
+            int target = ROOT;
+            if (parent != ROOT) {
+                int f = fail[parent];
+                while (true) {
+                    int t = base[f] + code;
+                    if (t < check.length && check[t] == f) {
+                        target = t;
+                        break;
+                    }
+                    if (f == ROOT) break;
+                    f = fail[f];
+                }
+            }
+            fail[child] = target;
+            output[child] = terminal[target] != 0 ? target : output[target];
+        }
+
+        private void ensureCapacity(int size) {
+            if (size <= check.length) return;
+            int newSize = Math.max(size, check.length + (check.length >> 1));
+            int oldSize = check.length;
+            base = Arrays.copyOf(base, newSize);
+            check = Arrays.copyOf(check, newSize);
+            fail = Arrays.copyOf(fail, newSize);
+            output = Arrays.copyOf(output, newSize);
+            terminal = Arrays.copyOf(terminal, newSize);
+            Arrays.fill(check, oldSize, newSize, FREE);
+        }
+    }
+}
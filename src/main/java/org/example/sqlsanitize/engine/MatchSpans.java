@@ -0,0 +1,30 @@
+package org.example.sqlsanitize.engine;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Where sensitive words/phrases were found in a text, as parallel arrays.
+ * <p>
+ * Entry {@code i} is the match covering chars {@code [starts[i], ends[i])} (UTF-16 offsets, end exclusive) of
+ * the stored term with ID {@code termIds[i]}. Matches are in text order and never overlap: overlapping terms are
+ * reported as one span covering both, with the ID of the longest of them.
+ * </p>
+ *
+ * @param starts  start offset of each match (inclusive)
+ * @param ends    end offset of each match (exclusive)
+ * @param termIds ID of the {@code SensitiveWord} that matched ({@code -1} if it has none)
+ */
+@Schema(description = "Matches of sensitive words/phrases, as parallel arrays of offsets and term IDs")
+public record MatchSpans(
+        @Schema(description = "Start offset of each match (inclusive)", example = "[0, 16]") int[] starts,
+        @Schema(description = "End offset of each match (exclusive)", example = "[6, 24]") int[] ends,
+        @Schema(description = "ID of the matched sensitive word", example = "[1, 2]") long[] termIds) {
+
+    /** No matches. */
+    public static final MatchSpans EMPTY = new MatchSpans(new int[0], new int[0], new long[0]);
+
+    /** @return number of matches */
+    public int size() {
+        return starts.length;
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.sqlsanitize.engine;
+
+import org.example.sqlsanitize.util.WordUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Sanitizes one large text on several cores.
+ *
+ * <p>The text is cut into chunks (ending on a non-word char where possible). Each chunk is scanned on the
+ * {@link ForkJoinPool} with {@link AhoCorasickEngine#findSpans(CharSequence, int, int)}, the same prefiltered scan
+ * as the sequential path, starting fresh at its first char and reading on past its end by up to the longest term,
+ * so every match that <em>starts</em> in the chunk is found even if it ends in the next one. Masking the spans
+ * (those of neighbouring chunks merged where they overlap) is then a quick sequential pass. That gives exactly the
+ * same result as {@link AhoCorasickEngine#sanitize(String)}.</p>
+ */
+final class ParallelSanitizer {
+
+    /** How far a chunk end may be pushed forward to land on a non-word char. */
+    private static final int MAX_ALIGN_DISTANCE = 256;
+
+    private ParallelSanitizer() { }
+
+    /** Sanitize {@code input}, in which the prefilter found the first possible match start at {@code from}. */
+    static String sanitize(AhoCorasickEngine engine, String input, int from, ForkJoinPool pool, int chunkSize) {
+        int n = input.length();
+
+        List<ForkJoinTask<MatchSpans>> tasks = new ArrayList<>();
+        while (from < n) {
+            int to = alignToBoundary(input, Math.min(n, from + chunkSize));
+            int chunkStart = from;
+            tasks.add(pool.submit(() -> engine.findSpans(input, chunkStart, to)));
+            from = to;
+        }
+
+        char[] out = null;
+        int copied = 0;   // first position not yet written to 'out' (also: end of the masked region so far)
+        for (ForkJoinTask<MatchSpans> task : tasks) {
+            MatchSpans spans = task.join();
+            for (int i = 0; i < spans.size(); i++) {
+                int start = spans.starts()[i];
+                int end = spans.ends()[i];
+                if (end <= copied) continue;   // inside a region already masked
+                if (out == null) out = new char[n];
+                if (start > copied) {
+                    input.getChars(copied, start, out, copied);
+                } else {
+                    start = copied;   // overlaps the previous span: mask the rest of this one too
+                }
+                Arrays.fill(out, start, end, AhoCorasickEngine.MASK_CHAR);
+                copied = end;
+            }
+        }
+
+        if (out == null) return input;
+        input.getChars(copied, n, out, copied);
+        return new String(out);
+    }
+
+    /** Move {@code pos} forward onto a non-word char (or the end of the text), within a small distance. */
+    private static int alignToBoundary(String input, int pos) {
+        int limit = Math.min(input.length(), pos + MAX_ALIGN_DISTANCE);
+        int p = pos;
+        while (p < limit && WordUtils.isWordChar(input.charAt(p))) {
+            p++;
+        }
+        return p < limit || limit == input.length() ? p : pos;
+    }
+}
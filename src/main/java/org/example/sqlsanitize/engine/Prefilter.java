@@ -0,0 +1,154 @@
+package org.example.sqlsanitize.engine;
+
+import org.example.sqlsanitize.util.WordUtils;
+
+/**
+ * Cheap test for where a match could start, built from a compiled {@link DoubleArrayTrie}.
+ *
+ * <p>A match can only start at a position whose char folds to the first char of some term, that is not preceded
+ * by an ASCII word char, and whose first two (folded) chars are the first two chars of some term. The first check is one
+ * bit in a 64K-bit map indexed by the raw char, so most of the text costs a single load; the last one goes through
+ * a small Bloom filter over the terms' first bigrams, so a "maybe" can be a false positive but a "no" never is.</p>
+ *
+ * <p>Text the prefilter rules out never reaches the automaton. Instances are immutable.</p>
+ *
+ * <p>When the JVM runs with {@code --add-modules jdk.incubator.vector}, longer strings are searched by
+ * {@link CandidateScan}, which classifies a whole vector of chars per step; otherwise the scalar loop here is
+ * used. Both find the same positions.</p>
+ */
+final class Prefilter {
+
+    /** Vectorized search, or {@code null} if the Vector API isn't available. */
+    private static final CandidateScan VECTOR_SCAN = CandidateScan.vector();
+
+    /** Below this many chars the vector setup costs more than it saves. */
+    private static final int VECTOR_MIN_LENGTH = 64;
+
+    /** Raw chars that fold to the first char of a term. */
+    private final long[] startChars = new long[(Character.MAX_VALUE + 1) / Long.SIZE];
+
+    /** Raw chars that fold to a one-char term (no second char to check). */
+    private final long[] singleCharTerms = new long[(Character.MAX_VALUE + 1) / Long.SIZE];
+
+    /** Bloom filter over the folded first bigrams of all terms. */
+    private final long[] bigrams;
+    private final int bigramMask;
+
+    /** Whether most first bigrams rule a position out, so skipping ahead mid-text is worth the calls. */
+    private boolean selective;
+
+    private Prefilter(int bigramBits) {
+        this.bigrams = new long[Math.max(1, bigramBits / Long.SIZE)];
+        this.bigramMask = bigramBits - 1;
+    }
+
+    static Prefilter build(DoubleArrayTrie trie) {
+        // Chars any term contains, and the states right below the root.
+        char[] alphabet = new char[Character.MAX_VALUE + 1];
+        int alphabetSize = 0;
+        int firstCount = 0;
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            if (trie.inAlphabet((char) c)) {
+                alphabet[alphabetSize++] = (char) c;
+                if (trie.child(DoubleArrayTrie.ROOT, (char) c) != DoubleArrayTrie.NONE) firstCount++;
+            }
+        }
+
+        // ~16 bits per first bigram keeps false positives low with two hashes; the alphabet bounds the bigram count.
+        long expected = Math.min((long) firstCount * alphabetSize, 1 << 20);
+        int bits = Integer.highestOneBit((int) Math.max(Long.SIZE, expected * 16 - 1)) << 1;
+        Prefilter prefilter = new Prefilter(Math.min(bits, 1 << 24));
+
+        long bigramCount = 0;
+        for (int i = 0; i < alphabetSize; i++) {
+            char first = alphabet[i];
+            int state = trie.child(DoubleArrayTrie.ROOT, first);
+            if (state == DoubleArrayTrie.NONE) continue;
+            for (int j = 0; j < alphabetSize; j++) {
+                if (trie.child(state, alphabet[j]) != DoubleArrayTrie.NONE) {
+                    prefilter.addBigram(first, alphabet[j]);
+                    bigramCount++;
+                }
+            }
+        }
+
+        // With a dense dictionary almost every word start is a candidate, and asking costs more than it saves.
+        prefilter.selective = bigramCount * 4 < (long) firstCount * alphabetSize;
+
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            int state = trie.child(DoubleArrayTrie.ROOT, AhoCorasickEngine.fold((char) c));
+            if (state == DoubleArrayTrie.NONE) continue;
+            prefilter.startChars[c >>> 6] |= 1L << c;
+            if (trie.firstHit(state) == state) {
+                prefilter.singleCharTerms[c >>> 6] |= 1L << c;
+            }
+        }
+        return prefilter;
+    }
+
+    /**
+     * @return the first position at or after {@code from} where a match could start, or {@code -1} if there is none
+     */
+    int nextCandidate(CharSequence input, int from) {
+        if (VECTOR_SCAN != null && input instanceof String s && s.length() - from >= VECTOR_MIN_LENGTH) {
+            return VECTOR_SCAN.nextCandidate(this, s, from);
+        }
+        return nextCandidateScalar(input, from);
+    }
+
+    /** Same as {@link #nextCandidate}, one char at a time. */
+    int nextCandidateScalar(CharSequence input, int from) {
+        int n = input.length();
+        for (int i = from; i < n; i++) {
+            char c = input.charAt(i);
+            if (!isStartChar(c)) continue;
+            if (i > 0 && WordUtils.isAsciiWordChar(input.charAt(i - 1))) continue;
+            if (passesBigram(input, i, c)) return i;
+        }
+        return -1;
+    }
+
+    /** @return whether {@code c} folds to the first char of a term */
+    boolean isStartChar(char c) {
+        return (startChars[c >>> 6] & (1L << c)) != 0;
+    }
+
+    /**
+     * @return whether a term could start with the start char {@code c} at {@code i}, judging by the char after it
+     */
+    boolean passesBigram(CharSequence input, int i, char c) {
+        if ((singleCharTerms[c >>> 6] & (1L << c)) != 0) return true;
+        return i + 1 < input.length()
+                && mightContain(AhoCorasickEngine.fold(c), AhoCorasickEngine.fold(input.charAt(i + 1)));
+    }
+
+    /** @return whether {@link #nextCandidate} usually skips more than it costs, past the start of the text */
+    boolean isSelective() {
+        return selective;
+    }
+
+    /** @return approximate heap used by the bitmaps and the Bloom filter, in bytes */
+    long footprintBytes() {
+        return (long) Long.BYTES * (startChars.length + singleCharTerms.length + bigrams.length);
+    }
+
+    private void addBigram(char a, char b) {
+        long h = hash(a, b);
+        int h1 = (int) h & bigramMask;
+        int h2 = (int) (h >>> 32) & bigramMask;
+        bigrams[h1 >>> 6] |= 1L << h1;
+        bigrams[h2 >>> 6] |= 1L << h2;
+    }
+
+    private boolean mightContain(char a, char b) {
+        long h = hash(a, b);
+        int h1 = (int) h & bigramMask;
+        int h2 = (int) (h >>> 32) & bigramMask;
+        return (bigrams[h1 >>> 6] & (1L << h1)) != 0 && (bigrams[h2 >>> 6] & (1L << h2)) != 0;
+    }
+
+    private static long hash(char a, char b) {
+        long h = ((long) a << 16 | b) * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+}
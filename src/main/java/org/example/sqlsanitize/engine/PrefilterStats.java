@@ -0,0 +1,34 @@
+package org.example.sqlsanitize.engine;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how often the prefilter let an input through to the automaton (a hit) and how often it ruled the whole
+ * input out up front (a miss), so the input was returned without being scanned.
+ *
+ * <p>One instance can be shared by successive engines (see {@link AhoCorasickEngine#withPrefilterStats}) so the
+ * counts survive dictionary rebuilds. Thread-safe.</p>
+ */
+public final class PrefilterStats {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /** @return number of inputs that may contain a term and were scanned */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /** @return number of inputs that were returned as-is without scanning */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    void recordHit() {
+        hits.increment();
+    }
+
+    void recordMiss() {
+        misses.increment();
+    }
+}
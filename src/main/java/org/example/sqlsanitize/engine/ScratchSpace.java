@@ -0,0 +1,76 @@
+package org.example.sqlsanitize.engine;
+
+import java.util.Arrays;
+
+/**
+ * Per-thread working buffers reused across engine calls, so a sanitize call only allocates its result.
+ *
+ * <p>Small output buffers are kept between calls; anything larger than {@link #MAX_RETAINED_CHARS} is dropped
+ * on {@link #release()} so a single huge input doesn't pin memory on every request thread.</p>
+ */
+final class ScratchSpace {
+
+    /** Largest output buffer kept for reuse (64 KB per thread). */
+    static final int MAX_RETAINED_CHARS = 1 << 15;
+
+    private static final ThreadLocal<ScratchSpace> CURRENT = ThreadLocal.withInitial(ScratchSpace::new);
+
+    private static final char[] NO_CHARS = new char[0];
+
+    /** Ring of the longest match found at each undecided position (see {@code AhoCorasickEngine}). */
+    int[] longestAt = new int[16];
+
+    /** Ring of the term ID belonging to {@link #longestAt}. */
+    long[] termIdAt = new long[16];
+
+    /** Reusable merger of overlapping matches for {@code AhoCorasickEngine}'s scans. */
+    final AhoCorasickEngine.OverlapMerger merger = new AhoCorasickEngine.OverlapMerger();
+
+    /** Reusable String-building handler for {@code AhoCorasickEngine#sanitize(String)}. */
+    final AhoCorasickEngine.CharArrayMasker masker = new AhoCorasickEngine.CharArrayMasker(this);
+
+    private char[] chars = NO_CHARS;
+
+    private boolean inUse;
+
+    private ScratchSpace() {
+    }
+
+    /**
+     * Returns this thread's scratch space, or a fresh one if it is already in use further up the stack
+     * (e.g. an {@link Appendable} that sanitizes again). Must be paired with {@link #release()}.
+     */
+    static ScratchSpace acquire() {
+        ScratchSpace scratch = CURRENT.get();
+        if (scratch.inUse) {
+            scratch = new ScratchSpace();
+        }
+        scratch.inUse = true;
+        return scratch;
+    }
+
+    void release() {
+        inUse = false;
+        if (chars.length > MAX_RETAINED_CHARS) {
+            chars = NO_CHARS;
+        }
+    }
+
+    /** Make sure both rings hold at least {@code size} entries, and clear them. */
+    void prepareRings(int size) {
+        if (longestAt.length < size) {
+            longestAt = new int[size];
+            termIdAt = new long[size];
+        } else {
+            Arrays.fill(longestAt, 0, size, 0);
+        }
+    }
+
+    /** An output buffer of at least {@code size} chars; contents are undefined. */
+    char[] chars(int size) {
+        if (chars.length < size) {
+            chars = new char[size];
+        }
+        return chars;
+    }
+}
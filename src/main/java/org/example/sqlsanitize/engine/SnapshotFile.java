@@ -0,0 +1,135 @@
+package org.example.sqlsanitize.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+
+/**
+ * Reads and writes a compiled {@link AhoCorasickEngine} as a binary file, so it can be reused on the next start
+ * instead of being rebuilt from the database.
+ *
+ * <p>The file is a 32-byte header followed by the engine's tables in their binary layout:</p>
+ * <pre>
+ *   magic ("SQLS"), format       2 ints
+ *   source version               long  (the stored dictionary version the engine was built from)
+ *   payload length               long
+ *   CRC32C of the payload        long
+ *   payload                      the tables
+ * </pre>
+ *
+ * <p>Reading maps the file and serves the tables straight from the mapping, so loading even a large dictionary
+ * costs one checksum pass and no parsing. Files are written to a temporary file first and then moved into place,
+ * so a crash mid-write never leaves a half-written snapshot behind, and engines still reading an older mapping
+ * are unaffected.</p>
+ */
+public final class SnapshotFile {
+
+    /** First int of the file ("SQLS"). */
+    private static final int MAGIC = 0x53514C53;
+
+    /** Version of the file layout. */
+    private static final int FORMAT = 1;
+
+    private static final int HEADER_BYTES = 32;
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * An engine loaded from a snapshot file.
+     *
+     * @param sourceVersion the stored dictionary version the engine was built from
+     * @param engine        the engine, reading from the mapped file
+     */
+    public record Loaded(long sourceVersion, AhoCorasickEngine engine) {
+    }
+
+    /**
+     * Write {@code engine} to {@code file}, replacing any previous snapshot.
+     *
+     * @param file          where to write; its directory is created if needed
+     * @param sourceVersion the stored dictionary version {@code engine} was built from
+     * @param engine        the engine to write
+     * @throws IOException if the file can't be written
+     */
+    public static void write(Path file, long sourceVersion, AhoCorasickEngine engine) throws IOException {
+        DoubleArrayTrie trie = engine.trie();
+        int payloadLength = trie.byteSize();
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) payloadLength);
+                mapped.order(ByteOrder.nativeOrder());
+                ByteBuffer payload = mapped.slice(HEADER_BYTES, payloadLength).order(ByteOrder.nativeOrder());
+                trie.writeTo(payload);
+
+                CRC32C crc = new CRC32C();
+                crc.update(payload.duplicate());
+                mapped.putInt(0, MAGIC)
+                        .putInt(4, FORMAT)
+                        .putLong(8, sourceVersion)
+                        .putLong(16, payloadLength)
+                        .putLong(24, crc.getValue());
+                mapped.force();
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Map the snapshot in {@code file}.
+     *
+     * @param file the snapshot file
+     * @return the loaded engine, or empty if there is no such file
+     * @throws IOException if the file can't be read, or is not a valid snapshot (wrong format, truncated, or
+     *                     failing its checksum)
+     */
+    public static Optional<Loaded> read(Path file) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not a dictionary snapshot: " + file);
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+        mapped.order(ByteOrder.nativeOrder());
+
+        if (mapped.getInt(0) != MAGIC || mapped.getInt(4) != FORMAT) {
+            throw new IOException("Not a dictionary snapshot in format " + FORMAT + ": " + file);
+        }
+        long sourceVersion = mapped.getLong(8);
+        long payloadLength = mapped.getLong(16);
+        if (payloadLength != mapped.capacity() - HEADER_BYTES) {
+            throw new IOException("Truncated dictionary snapshot: " + file);
+        }
+        ByteBuffer payload = mapped.slice(HEADER_BYTES, (int) payloadLength).order(ByteOrder.nativeOrder());
+        CRC32C crc = new CRC32C();
+        crc.update(payload.duplicate());
+        if (crc.getValue() != mapped.getLong(24)) {
+            throw new IOException("Checksum mismatch in dictionary snapshot: " + file);
+        }
+
+        try {
+            DoubleArrayTrie trie = DoubleArrayTrie.read(payload, TrieStorage.MAPPED);
+            return Optional.of(new Loaded(sourceVersion, new AhoCorasickEngine(trie)));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid dictionary snapshot: " + file, e);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package org.example.sqlsanitize.engine;
+
+import org.example.sqlsanitize.util.WordUtils;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Sanitizes text that arrives in chunks, writing the result as soon as it is final.
+ *
+ * <p>Gives exactly the same output as {@link AhoCorasickEngine#sanitize(String)} on the concatenated input,
+ * including for terms that straddle two chunks. Only the last few chars (about twice the longest term) are
+ * kept in memory, so memory use does not depend on the size of the input.</p>
+ *
+ * <p>Usage: call {@link #write(char[], int, int)} for each chunk, then {@link #finish()} once. Instances are
+ * single-use and not thread-safe.</p>
+ */
+public final class StreamingSanitizer {
+
+    /** Size of the buffer collecting output before it is handed to the writer. */
+    private static final int OUTPUT_BUFFER_SIZE = 8192;
+
+    /** Stands in for the char after the last one, which no term runs into. */
+    private static final int END_OF_INPUT = -1;
+
+    private final AhoCorasickEngine engine;
+    private final Writer out;
+    private final int maxTermLength;
+
+    /** Mask for the ring buffers below; they hold the chars/matches that may still be needed. */
+    private final int ringMask;
+
+    /** Last input chars, indexed by position; needed for boundary checks and for copying unmatched text. */
+    private final char[] recentChars;
+
+    /** Longest valid match starting at each undecided position (0 = none). */
+    private final int[] longestAt;
+
+    private final char[] outputBuffer = new char[OUTPUT_BUFFER_SIZE];
+    private int outputLength;
+
+    private final DoubleArrayTrie trie;
+    private int state = DoubleArrayTrie.ROOT;
+
+    /** Number of chars received so far. */
+    private long length;
+
+    /** First position not yet written out. */
+    private long cursor;
+
+    /** End of the masked region decided so far; positions before it are written as masks. */
+    private long maskedUntil;
+
+    private boolean finished;
+
+    StreamingSanitizer(AhoCorasickEngine engine, Writer out) {
+        this.engine = engine;
+        this.out = out;
+        this.maxTermLength = engine.getMaxTermLength();
+        // Undecided positions, the char before them (start boundary) and the current char must all fit.
+        this.ringMask = Integer.highestOneBit(maxTermLength + 2) * 2 - 1;
+        this.recentChars = new char[ringMask + 1];
+        this.longestAt = new int[ringMask + 1];
+        this.trie = engine.trie();
+    }
+
+    /**
+     * Feed the next chunk of text.
+     *
+     * @throws IOException           if writing to the underlying writer fails
+     * @throws IllegalStateException if {@link #finish()} was already called
+     */
+    public void write(char[] chunk, int offset, int count) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("Sanitizer already finished");
+        }
+        for (int i = offset; i < offset + count; i++) {
+            char c = chunk[i];
+            long pos = length;
+            recentChars[(int) (pos & ringMask)] = c;
+
+            // Terms ending just before this char can be checked now that we know what follows them.
+            if (pos > 0) {
+                collectMatches(pos, c);
+            }
+            state = trie.step(state, AhoCorasickEngine.fold(c));
+            length = pos + 1;
+
+            // Nothing found from now on can start before this limit.
+            emitDecided(pos + 1 - maxTermLength);
+        }
+    }
+
+    /**
+     * Signal the end of the input, write out everything still pending and flush the writer.
+     * The writer itself is not closed.
+     */
+    public void finish() throws IOException {
+        if (finished) return;
+        finished = true;
+        if (length > 0) {
+            collectMatches(length, END_OF_INPUT);
+        }
+        emitDecided(length);
+        flushOutput();
+        out.flush();
+    }
+
+    /**
+     * Record the terms that end at {@code end} (exclusive) and pass both boundary checks.
+     *
+     * @param next the char at {@code end}, or {@link #END_OF_INPUT}
+     */
+    private void collectMatches(long end, int next) {
+        if (next != END_OF_INPUT && WordUtils.isAsciiWordChar((char) next)) return;
+        for (int hit = trie.firstHit(state); hit != DoubleArrayTrie.NONE; hit = trie.nextHit(hit)) {
+            if (next != END_OF_INPUT && trie.joinsWord(hit, (char) next)) continue;
+            int termLength = trie.termLength(hit);
+            long start = end - termLength;
+            if (start < cursor) continue;
+            if (start > 0 && trie.joinsWord(hit, recentChars[(int) ((start - 1) & ringMask)])) continue;
+            int slot = (int) (start & ringMask);
+            if (termLength > longestAt[slot]) longestAt[slot] = termLength;
+        }
+    }
+
+    /**
+     * Write out every position before {@code limit}: a mask if any match covers it, the original char otherwise.
+     * Every match covering a position starts at or before it, so it is known by the time the position is written.
+     */
+    private void emitDecided(long limit) throws IOException {
+        for (; cursor < limit; cursor++) {
+            int slot = (int) (cursor & ringMask);
+            int len = longestAt[slot];
+            if (len > 0) {
+                maskedUntil = Math.max(maskedUntil, cursor + len);
+                longestAt[slot] = 0;
+            }
+            emit(cursor < maskedUntil ? AhoCorasickEngine.MASK_CHAR : recentChars[slot]);
+        }
+    }
+
+    private void emit(char c) throws IOException {
+        if (outputLength == outputBuffer.length) {
+            flushOutput();
+        }
+        outputBuffer[outputLength++] = c;
+    }
+
+    private void flushOutput() throws IOException {
+        if (outputLength > 0) {
+            out.write(outputBuffer, 0, outputLength);
+            outputLength = 0;
+        }
+    }
+}
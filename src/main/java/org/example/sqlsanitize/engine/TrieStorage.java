@@ -0,0 +1,16 @@
+package org.example.sqlsanitize.engine;
+
+/**
+ * Where the tables of a compiled {@link AhoCorasickEngine} are kept.
+ */
+public enum TrieStorage {
+
+    /** Plain {@code int[]}s on the Java heap. */
+    HEAP,
+
+    /** One direct {@link java.nio.ByteBuffer}, outside the heap (counts against {@code -XX:MaxDirectMemorySize}). */
+    DIRECT,
+
+    /** A memory-mapped file in a configurable directory, backed by the OS page cache. */
+    MAPPED
+}
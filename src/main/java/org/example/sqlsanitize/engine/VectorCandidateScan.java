@@ -0,0 +1,75 @@
+package org.example.sqlsanitize.engine;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import org.example.sqlsanitize.util.WordUtils;
+
+/**
+ * {@link CandidateScan} on the Vector API: classifies 16 or 32 chars per step (depending on the CPU) as ASCII word
+ * chars, which gives every position that follows none, i.e. every possible term start. Only those are checked
+ * against the prefilter's start chars and bigrams, one by one.
+ *
+ * <p>Chars are copied from the string into a per-thread block buffer first, since vectors load from arrays.
+ * Only loaded through {@link CandidateScan#vector()}.</p>
+ */
+final class VectorCandidateScan extends CandidateScan {
+
+    private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+    private static final long LANE_BITS = LANES == Long.SIZE ? -1L : (1L << LANES) - 1;
+
+    /**
+     * Chars copied per block: small at first, since candidates are often close by, then doubling up to the buffer
+     * size. Both are multiples of every vector length.
+     */
+    private static final int FIRST_BLOCK = 64;
+    private static final int MAX_BLOCK = 1024;
+
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[MAX_BLOCK]);
+
+    @Override
+    int nextCandidate(Prefilter prefilter, String input, int from) {
+        int n = input.length();
+        char[] block = BUFFER.get();
+        boolean prevWord = from > 0 && WordUtils.isAsciiWordChar(input.charAt(from - 1));
+
+        int blockSize = FIRST_BLOCK;
+        for (int offset = from; offset < n; offset += blockSize, blockSize = Math.min(2 * blockSize, MAX_BLOCK)) {
+            int length = Math.min(blockSize, n - offset);
+            input.getChars(offset, offset + length, block, 0);
+
+            int j = 0;
+            for (int bound = SPECIES.loopBound(length); j < bound; j += LANES) {
+                ShortVector chars = ShortVector.fromCharArray(SPECIES, block, j);
+                long word = wordChars(chars);
+                // A lane can start a term if the lane before it (or the previous vector's last one) is no word char.
+                long starts = ~(word << 1 | (prevWord ? 1 : 0)) & LANE_BITS;
+                prevWord = (word >>> (LANES - 1) & 1) != 0;
+                for (; starts != 0; starts &= starts - 1) {
+                    int k = j + Long.numberOfTrailingZeros(starts);
+                    char c = block[k];
+                    if (prefilter.isStartChar(c) && prefilter.passesBigram(input, offset + k, c)) return offset + k;
+                }
+            }
+            for (; j < length; j++) {
+                char c = block[j];
+                if (!prevWord && prefilter.isStartChar(c) && prefilter.passesBigram(input, offset + j, c)) {
+                    return offset + j;
+                }
+                prevWord = WordUtils.isAsciiWordChar(c);
+            }
+        }
+        return -1;
+    }
+
+    /** @return one bit per lane, set where the char is an {@linkplain WordUtils#isAsciiWordChar ASCII word char} */
+    private static long wordChars(ShortVector chars) {
+        // Setting 0x20 lower-cases ASCII letters and maps no other char into a-z.
+        ShortVector lower = chars.or((short) 0x20);
+        return lower.compare(VectorOperators.GE, (short) 'a').and(lower.compare(VectorOperators.LE, (short) 'z'))
+                .or(chars.compare(VectorOperators.GE, (short) '0').and(chars.compare(VectorOperators.LE, (short) '9')))
+                .or(chars.compare(VectorOperators.EQ, (short) '_'))
+                .toLong();
+    }
+}
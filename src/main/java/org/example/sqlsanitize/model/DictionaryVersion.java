@@ -0,0 +1,35 @@
+package org.example.sqlsanitize.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Single-row counter that goes up with every change to the stored sensitive words.
+ * <p>
+ * It is bumped in the same transaction as the change itself, so a compiled dictionary tagged with this version
+ * is known to reflect exactly what is stored (see {@code SensitiveWordDictionary}).
+ * </p>
+ */
+@Entity
+@Table(name = "dictionary_version")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DictionaryVersion {
+
+    /** ID of the one row this table holds. */
+    public static final long SINGLETON_ID = 1L;
+
+    /** Always {@link #SINGLETON_ID}. */
+    @Id
+    private Long id;
+
+    /** Number of committed dictionary changes so far. */
+    @Column(nullable = false)
+    private long version;
+}
@@ -0,0 +1,45 @@
+package org.example.sqlsanitize.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Single-row record of the seed file last applied to the sensitive words.
+ * <p>
+ * On startup the seeder compares the seed file's hash with {@link #contentHash} and skips seeding entirely when it
+ * is unchanged (see {@code SensitiveWordSeeder}).
+ * </p>
+ */
+@Entity
+@Table(name = "seed_file_state")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeedFileState {
+
+    /** ID of the one row this table holds. */
+    public static final long SINGLETON_ID = 1L;
+
+    /** Always {@link #SINGLETON_ID}. */
+    @Id
+    private Long id;
+
+    /** Hex SHA-256 of the seed file's bytes, as stored (before any decompression). */
+    @Column(nullable = false, length = 64)
+    private String contentHash;
+
+    /** {@link DictionaryVersion#getVersion()} right after the file was applied. */
+    @Column(nullable = false)
+    private long dictionaryVersion;
+
+    /** When the file was applied. */
+    @Column(nullable = false)
+    private Instant appliedAt;
+}
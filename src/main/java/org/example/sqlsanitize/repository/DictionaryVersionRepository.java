@@ -0,0 +1,31 @@
+package org.example.sqlsanitize.repository;
+
+import org.example.sqlsanitize.model.DictionaryVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for the single {@link DictionaryVersion} row.
+ */
+@Repository
+public interface DictionaryVersionRepository extends JpaRepository<DictionaryVersion, Long> {
+
+    /**
+     * Adds one to the version in place, creating the row with version {@code 1} if it doesn't exist yet.
+     * <p>A single {@code merge ... with (holdlock)} statement, so concurrent writers neither lose an increment nor
+     * race each other to insert the first row. Must run inside a transaction.</p>
+     *
+     * @param id the row to update ({@link DictionaryVersion#SINGLETON_ID})
+     * @return number of rows updated or inserted (always {@code 1})
+     */
+    @Modifying
+    @Query(value = "merge dictionary_version with (holdlock) as v"
+            + " using (select :id as id) as s on v.id = s.id"
+            + " when matched then update set v.version = v.version + 1"
+            + " when not matched then insert (id, version) values (s.id, 1);",
+            nativeQuery = true)
+    int increment(@Param("id") long id);
+}
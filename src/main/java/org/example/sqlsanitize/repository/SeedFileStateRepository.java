@@ -0,0 +1,12 @@
+package org.example.sqlsanitize.repository;
+
+import org.example.sqlsanitize.model.SeedFileState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for the single {@link SeedFileState} row.
+ */
+@Repository
+public interface SeedFileStateRepository extends JpaRepository<SeedFileState, Long> {
+}
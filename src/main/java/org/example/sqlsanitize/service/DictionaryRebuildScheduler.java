@@ -0,0 +1,136 @@
+package org.example.sqlsanitize.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rebuilds the {@link SensitiveWordDictionary} in the background, coalescing bursts of changes.
+ *
+ * <p>The first committed change schedules a rebuild {@code sanitize.dictionary.rebuild-window} later; any other
+ * changes committed before it runs are folded into that same rebuild. Writers never wait for a rebuild, and
+ * readers keep using the previous snapshot until the new one is published.</p>
+ *
+ * <p>While the dictionary is {@linkplain SensitiveWordDictionary#isStale() stale} (a load failed, typically because
+ * the database is down) a rebuild is retried every {@code sanitize.dictionary.resync-interval} until one succeeds.</p>
+ */
+@Slf4j
+@Component
+public class DictionaryRebuildScheduler {
+
+    private final SensitiveWordDictionary sensitiveWordDictionary;
+
+    /** How long to collect changes before rebuilding. */
+    private final Duration rebuildWindow;
+
+    /** How often to retry while the dictionary is stale. */
+    private final Duration resyncInterval;
+
+    /** Single background thread that runs the rebuilds. */
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "dictionary-rebuild");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** Committed changes not yet reflected in the published snapshot. */
+    private final AtomicInteger pendingChanges = new AtomicInteger();
+
+    /** Whether a rebuild is already scheduled (so new changes just join it). */
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+
+    public DictionaryRebuildScheduler(SensitiveWordDictionary sensitiveWordDictionary,
+                                      @Value("${sanitize.dictionary.rebuild-window:500ms}") Duration rebuildWindow,
+                                      @Value("${sanitize.dictionary.resync-interval:30s}") Duration resyncInterval) {
+        this.sensitiveWordDictionary = sensitiveWordDictionary;
+        this.rebuildWindow = rebuildWindow;
+        this.resyncInterval = resyncInterval;
+        executor.scheduleWithFixedDelay(this::resyncIfStale,
+                resyncInterval.toMillis(), resyncInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records a dictionary change and makes sure a rebuild is scheduled.
+     * <p>The stored dictionary version is bumped in the caller's transaction. Inside a transaction the change only
+     * counts once it commits (nothing happens on rollback).</p>
+     */
+    public void requestRebuild() {
+        sensitiveWordDictionary.markChanged();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            changeCommitted();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                changeCommitted();
+            }
+        });
+    }
+
+    /**
+     * Schedules a rebuild for changes that are already committed, each of which bumped the stored version itself
+     * (see {@link SensitiveWordDictionary#markChanged()}).
+     * <p>Lets a caller that writes in several transactions, like a bulk import, ask for one rebuild at the end
+     * instead of one per transaction.</p>
+     */
+    public void rebuildForCommittedChanges() {
+        changeCommitted();
+    }
+
+    private void changeCommitted() {
+        pendingChanges.incrementAndGet();
+        scheduleRebuild();
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            executor.schedule(this::rebuild, rebuildWindow.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void rebuild() {
+        // Changes committed from here on schedule their own rebuild, since this one may already miss them.
+        rebuildScheduled.set(false);
+        int changes = pendingChanges.getAndSet(0);
+        try {
+            sensitiveWordDictionary.reload();
+            log.debug("Dictionary rebuilt for {} change(s).", changes);
+        } catch (RuntimeException e) {
+            // The dictionary is now stale, so resyncIfStale() retries it.
+            log.error("Dictionary rebuild failed; retrying every {}.", resyncInterval, e);
+            pendingChanges.addAndGet(changes);
+        }
+    }
+
+    private void resyncIfStale() {
+        if (sensitiveWordDictionary.isStale() && !rebuildScheduled.get()) {
+            rebuild();
+        }
+    }
+
+    /** @return committed changes that are waiting for the next rebuild */
+    public int getPendingChanges() {
+        return pendingChanges.get();
+    }
+
+    /** @return how long changes are collected before a rebuild runs */
+    public Duration getRebuildWindow() {
+        return rebuildWindow;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.sqlsanitize.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when text can't be sanitized because no sensitive word dictionary is loaded yet (still starting up, or
+ * the database was unreachable at startup and there was no persisted snapshot to fall back on).
+ * <p>Answered with {@code 503}, so callers retry instead of getting their text back unmasked.</p>
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class DictionaryUnavailableException extends RuntimeException {
+
+    public DictionaryUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,289 @@
+package org.example.sqlsanitize.service;
+
+import org.example.sqlsanitize.engine.DictionarySnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of sanitized results, for clients (bots, retries) that send the same text over and over.
+ *
+ * <p>Entries are keyed by a 128-bit hash of the input together with the {@link DictionarySnapshot#version()} it was
+ * sanitized with, so a new dictionary never serves an old result; entries of older versions are dropped as soon as a
+ * newer one is seen. The hash is seeded randomly per process, and each entry keeps its input so a hit is only
+ * served when the input is actually equal, never on a hash match alone. Each of a few independently locked segments
+ * keeps its entries in least-recently-used order and evicts the oldest once it holds its share of
+ * {@code sanitize.cache.max-entries}.</p>
+ *
+ * <p>Concurrent misses on the same key are coalesced: the first caller registers its computation in an in-flight map
+ * and scans, and everyone arriving before it finishes waits for that result instead of scanning again.</p>
+ *
+ * <p>{@code sanitize.cache.max-entries = 0} turns the cache (and with it the coalescing) off. Inputs longer than
+ * {@code sanitize.cache.max-input-length} chars bypass it, since hashing them costs about as much as scanning.</p>
+ *
+ * <p>The cache is bounded by entry count, not size. Each entry holds an input and its result, so the worst case is
+ * about {@code max-entries * max-input-length * 4} bytes: some 160 MB with the defaults (10000 entries of 4096
+ * chars), half that for Latin-1 text. Lower either setting to cap it.</p>
+ */
+@Component
+public class SanitizeResultCache {
+
+    /** Most segments; more means less lock contention but a coarser LRU. */
+    private static final int MAX_SEGMENTS = 16;
+
+    private final Segment[] segments;
+
+    /** Longest input (in chars) that is cached. */
+    private final int maxInputLength;
+
+    /** Newest dictionary version seen; results of older ones are no longer cached or looked up. */
+    private final AtomicLong newestVersion = new AtomicLong();
+
+    /** Results being computed right now, so identical concurrent calls can wait for them. */
+    private final ConcurrentMap<Key, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public SanitizeResultCache(@Value("${sanitize.cache.max-entries:10000}") int maxEntries,
+                               @Value("${sanitize.cache.max-input-length:4096}") int maxInputLength) {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("sanitize.cache.max-entries must not be negative: " + maxEntries);
+        }
+        int segmentCount = Math.min(MAX_SEGMENTS, maxEntries);
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            // Spread maxEntries over the segments so they add up to exactly that.
+            segments[i] = new Segment(maxEntries / segmentCount + (i < maxEntries % segmentCount ? 1 : 0));
+        }
+        this.maxInputLength = maxInputLength;
+    }
+
+    /**
+     * Returns {@code input} sanitized with {@code snapshot}'s engine, from the cache if it was sanitized with the same
+     * snapshot before, or from an identical call still in progress.
+     *
+     * @param snapshot the dictionary snapshot to sanitize with
+     * @param input    the text to sanitize; must not be null
+     * @return the sanitized text
+     */
+    public String sanitize(DictionarySnapshot snapshot, String input) {
+        if (segments.length == 0 || input.length() > maxInputLength || isOutdated(snapshot.version())) {
+            return scan(snapshot, input);
+        }
+
+        Key key = key(snapshot.version(), input);
+        Segment segment = segments[(int) ((key.hashLow() >>> 32) % segments.length)];
+        String cached = segment.get(key, input);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        InFlight mine = new InFlight(input, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            if (!running.input().equals(input)) {
+                // A different input with the same hash is being sanitized; just scan this one.
+                misses.increment();
+                return scan(snapshot, input);
+            }
+            coalesced.increment();
+            return running.result().join();
+        }
+        try {
+            // The previous computation may have finished between the lookup and registering this one.
+            cached = segment.get(key, input);
+            if (cached != null) {
+                hits.increment();
+            } else {
+                misses.increment();
+                cached = scan(snapshot, input);
+                segment.put(key, input, cached);
+            }
+            mine.result().complete(cached);
+            return cached;
+        } catch (RuntimeException | Error e) {
+            mine.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            // Only after the result is cached, so later callers find it there.
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /** @return whether results are cached at all */
+    public boolean isEnabled() {
+        return segments.length > 0;
+    }
+
+    /** @return number of lookups answered from the cache */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /** @return number of lookups that had to sanitize (inputs bypassing the cache aren't counted) */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /** @return number of lookups that waited for an identical concurrent one instead of scanning */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    /** @return number of cached results */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /** Hashes {@code input} into its cache key; the only place keys are made. */
+    Key key(long version, String input) {
+        return Key.of(version, input);
+    }
+
+    /** Sanitizes {@code input} for real; the only place the cache scans. */
+    String scan(DictionarySnapshot snapshot, String input) {
+        return snapshot.engine().sanitize(input);
+    }
+
+    private boolean isOutdated(long version) {
+        long newest = newestVersion.get();
+        if (version > newest) {
+            newestVersion.accumulateAndGet(version, Math::max);
+        }
+        return version < newest;
+    }
+
+    /** A computation in progress, with the input it is for. */
+    private record InFlight(String input, CompletableFuture<String> result) {
+    }
+
+    /** A cached result, with the input it is for. */
+    private record Cached(String input, String sanitized) {
+    }
+
+    /** One lock's worth of entries, in least-recently-used order. */
+    private static final class Segment {
+
+        private final Map<Key, Cached> entries;
+
+        /** Newest dictionary version seen; entries of older ones have been dropped. */
+        private long version;
+
+        Segment(int capacity) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, Cached> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        /** Returns the result cached for {@code input}, or {@code null}; a different input with the same key misses. */
+        synchronized String get(Key key, String input) {
+            if (key.version() != version) return null;
+            Cached cached = entries.get(key);
+            return cached != null && cached.input().equals(input) ? cached.sanitized() : null;
+        }
+
+        synchronized void put(Key key, String input, String sanitized) {
+            if (key.version() < version) return;   // sanitized with a snapshot that has since been replaced
+            if (key.version() > version) {
+                entries.clear();
+                version = key.version();
+            }
+            entries.put(key, new Cached(input, sanitized));
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Cache key: snapshot version plus MurmurHash3 (x64, 128-bit) of the input's chars, with a per-process random
+     * seed so colliding inputs can't be worked out in advance.
+     */
+    record Key(long version, long hashHigh, long hashLow) {
+
+        private static final long C1 = 0x87c37b91114253d5L;
+        private static final long C2 = 0x4cf5ad432745937fL;
+
+        private static final long SEED = new SecureRandom().nextLong();
+
+        static Key of(long version, String input) {
+            int n = input.length();
+            long h1 = SEED;
+            long h2 = SEED;
+
+            // Blocks of 8 chars = 128 bits.
+            int i = 0;
+            for (; i + 8 <= n; i += 8) {
+                long k1 = chars(input, i, 4);
+                long k2 = chars(input, i + 4, 4);
+
+                h1 ^= mixK1(k1);
+                h1 = Long.rotateLeft(h1, 27) + h2;
+                h1 = h1 * 5 + 0x52dce729;
+
+                h2 ^= mixK2(k2);
+                h2 = Long.rotateLeft(h2, 31) + h1;
+                h2 = h2 * 5 + 0x38495ab5;
+            }
+
+            int rest = n - i;
+            if (rest > 4) h2 ^= mixK2(chars(input, i + 4, rest - 4));
+            if (rest > 0) h1 ^= mixK1(chars(input, i, Math.min(rest, 4)));
+
+            h1 ^= n;
+            h2 ^= n;
+            h1 += h2;
+            h2 += h1;
+            h1 = fmix(h1);
+            h2 = fmix(h2);
+            h1 += h2;
+            h2 += h1;
+            return new Key(version, h1, h2);
+        }
+
+        /** Packs {@code count} (at most 4) chars from {@code from} into a long, first char lowest. */
+        private static long chars(String s, int from, int count) {
+            long k = 0;
+            for (int j = count - 1; j >= 0; j--) {
+                k = k << 16 | s.charAt(from + j);
+            }
+            return k;
+        }
+
+        private static long mixK1(long k1) {
+            return Long.rotateLeft(k1 * C1, 31) * C2;
+        }
+
+        private static long mixK2(long k2) {
+            return Long.rotateLeft(k2 * C2, 33) * C1;
+        }
+
+        private static long fmix(long k) {
+            k ^= k >>> 33;
+            k *= 0xff51afd7ed558ccdL;
+            k ^= k >>> 33;
+            k *= 0xc4ceb9fe1a85ec53L;
+            k ^= k >>> 33;
+            return k;
+        }
+    }
+}
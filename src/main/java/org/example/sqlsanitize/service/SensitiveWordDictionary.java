@@ -0,0 +1,293 @@
+package org.example.sqlsanitize.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.sqlsanitize.engine.AhoCorasickEngine;
+import org.example.sqlsanitize.engine.DictionarySnapshot;
+import org.example.sqlsanitize.engine.PrefilterStats;
+import org.example.sqlsanitize.engine.SnapshotFile;
+import org.example.sqlsanitize.engine.TrieStorage;
+import org.example.sqlsanitize.model.DictionaryVersion;
+import org.example.sqlsanitize.model.SensitiveWord;
+import org.example.sqlsanitize.repository.DictionaryVersionRepository;
+import org.example.sqlsanitize.repository.SensitiveWordRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the in-memory copy of the sensitive word dictionary used for sanitizing.
+ *
+ * <p>The dictionary is loaded once at startup and kept as an immutable {@link DictionarySnapshot}.
+ * Whenever words are added, updated or deleted, {@link DictionaryRebuildScheduler} builds a fresh snapshot in the
+ * background and it is swapped in atomically; until then readers keep using the previous one. Sanitizing only
+ * ever reads {@link #require()}, so it needs neither JPA nor a transaction.</p>
+ *
+ * <p>The first snapshot is loaded before the web server starts taking requests, and again once startup completes
+ * if the seeder changed the stored words in between. Until a snapshot is loaded at all, {@link #require()} refuses
+ * with {@link DictionaryUnavailableException} rather than letting text through unmasked.</p>
+ *
+ * <p>{@code sanitize.dictionary.storage} picks where the compiled tables live: {@code heap} (default),
+ * {@code direct} (off-heap) or {@code mapped} (a memory-mapped file in {@code sanitize.dictionary.directory}).</p>
+ *
+ * <p>Every change bumps the stored {@link DictionaryVersion} in the same transaction. Each compiled snapshot is
+ * written to {@code sanitize.dictionary.snapshot-file} together with the version it was built from, and on the
+ * next start that file is mapped instead of recompiling, as long as the stored version still matches.</p>
+ *
+ * <p>If the database can't be reached at startup, the persisted snapshot is served whatever its version, and the
+ * dictionary is flagged {@linkplain #isStale() stale}; the same happens when a reload fails later on. It stays stale
+ * until a reload succeeds, which {@link DictionaryRebuildScheduler} keeps retrying. Without a persisted snapshot
+ * there is nothing to serve, so sanitizing is refused (and readiness reports down) until then.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SensitiveWordDictionary implements SmartInitializingSingleton {
+
+    private final SensitiveWordRepository sensitiveWordRepository;
+    private final DictionaryVersionRepository dictionaryVersionRepository;
+
+    /** The snapshot readers currently use. */
+    private final AtomicReference<DictionarySnapshot> snapshot = new AtomicReference<>(DictionarySnapshot.EMPTY);
+
+    /** Source of snapshot version numbers. */
+    private final AtomicLong versionCounter = new AtomicLong();
+
+    /** Prefilter counts of every published engine, so they add up across rebuilds. */
+    private final PrefilterStats prefilterStats = new PrefilterStats();
+
+    /** Where compiled dictionaries keep their tables. */
+    @Value("${sanitize.dictionary.storage:heap}")
+    private TrieStorage storage = TrieStorage.HEAP;
+
+    /** Directory for {@link TrieStorage#MAPPED} dictionary files. */
+    @Value("${sanitize.dictionary.directory:${java.io.tmpdir}/sql-sanitize}")
+    private Path directory = Path.of(System.getProperty("java.io.tmpdir"), "sql-sanitize");
+
+    /** Where compiled snapshots are persisted; blank turns persisting off. */
+    @Value("${sanitize.dictionary.snapshot-file:}")
+    private String snapshotFile = "";
+
+    /** How long the last {@link #reload()} took; {@code null} until the first one finishes. */
+    private volatile Duration lastReloadDuration;
+
+    /** When the snapshot stopped being known to match the database; {@code null} while it does. */
+    private volatile Instant staleSince;
+
+    /** Why the snapshot is stale; {@code null} while it isn't. */
+    private volatile String staleReason;
+
+    /**
+     * Returns the snapshot currently in use. Never {@code null}, but {@link DictionarySnapshot#EMPTY} until one is
+     * loaded; see {@link #require()}.
+     */
+    public DictionarySnapshot current() {
+        return snapshot.get();
+    }
+
+    /**
+     * Returns the snapshot to sanitize with.
+     *
+     * @throws DictionaryUnavailableException if no dictionary has been loaded yet
+     */
+    public DictionarySnapshot require() {
+        DictionarySnapshot current = snapshot.get();
+        if (current.version() == 0) {
+            throw new DictionaryUnavailableException("Sensitive word dictionary not loaded yet");
+        }
+        return current;
+    }
+
+    /** Loads the first snapshot once all beans exist, which is before the web server starts. */
+    @Override
+    public void afterSingletonsInstantiated() {
+        loadOnStartup();
+    }
+
+    /**
+     * Builds the first snapshot, reusing the persisted one if it was built from the current stored version.
+     * <p>Nothing is published while nothing was ever stored (stored version {@code 0}): the seeder is about to fill
+     * the table, and {@link #syncAfterStartup()} loads it once it is done.</p>
+     */
+    public void loadOnStartup() {
+        long start = System.nanoTime();
+        Optional<SnapshotFile.Loaded> persisted = readPersisted();
+        try {
+            long storedVersion = storedVersion();
+            if (storedVersion == 0) {
+                log.info("No sensitive words stored yet; dictionary is loaded once seeding completes.");
+                return;
+            }
+            if (persisted.isPresent() && persisted.get().sourceVersion() == storedVersion) {
+                publish(persisted.get().sourceVersion(), persisted.get().engine(), start);
+                log.info("Loaded dictionary snapshot for stored version {} from {}.", storedVersion, snapshotFile);
+                return;
+            }
+            persisted.ifPresent(p -> log.info("Persisted dictionary snapshot is stale (version {}, stored {}); rebuilding.",
+                    p.sourceVersion(), storedVersion));
+            reload();
+        } catch (DataAccessException | TransactionException e) {
+            if (persisted.isPresent()) {
+                publish(persisted.get().sourceVersion(), persisted.get().engine(), start);
+                log.warn("Database unavailable; serving persisted dictionary snapshot for stored version {} until it is back.",
+                        persisted.get().sourceVersion(), e);
+            } else {
+                log.error("Database unavailable and no persisted dictionary snapshot; sanitizing is refused until it is back.", e);
+            }
+            markStale(e);
+        }
+    }
+
+    /**
+     * Reloads once the application (including the seeder) is up, if the stored words changed since
+     * {@link #loadOnStartup()} or nothing was loaded then.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void syncAfterStartup() {
+        try {
+            DictionarySnapshot current = snapshot.get();
+            if (current.version() == 0 || current.sourceVersion() != storedVersion()) {
+                reload();
+            }
+        } catch (DataAccessException | TransactionException e) {
+            // Stale either way, so DictionaryRebuildScheduler keeps retrying.
+            markStale(e);
+            log.warn("Database unavailable; dictionary not synced after startup ({}).", e.getMessage());
+        }
+    }
+
+    /**
+     * Loads all stored words/phrases, compiles them and publishes the result as the new snapshot.
+     *
+     * <p>Synchronized so that a slower reload can't publish an older view over a newer one.</p>
+     *
+     * @return the snapshot that was published
+     */
+    public synchronized DictionarySnapshot reload() {
+        long start = System.nanoTime();
+        DictionarySnapshot next;
+        try {
+            // Read the version first: the words loaded next are then at least that new, never older.
+            long storedVersion = storedVersion();
+            List<SensitiveWord> words = sensitiveWordRepository.findAll();
+            AhoCorasickEngine engine = AhoCorasickEngine.compile(words, storage, directory);
+            // Cleared before publishing, so whoever sees the new snapshot also sees it as in sync.
+            if (staleSince != null) {
+                log.info("Dictionary back in sync with the database (stale since {}).", staleSince);
+                staleSince = null;
+                staleReason = null;
+            }
+            next = publish(storedVersion, engine, start);
+        } catch (RuntimeException e) {
+            markStale(e);
+            throw e;
+        }
+        persist(next);
+        return next;
+    }
+
+    /**
+     * Records that the stored words changed by bumping the stored {@link DictionaryVersion}, creating it on the
+     * first change.
+     * <p>Joins the caller's transaction, so the bump commits or rolls back together with the change.</p>
+     */
+    @Transactional
+    public void markChanged() {
+        dictionaryVersionRepository.increment(DictionaryVersion.SINGLETON_ID);
+    }
+
+    /**
+     * Returns how long the last reload (load + compile + publish) took, or {@code null} if none finished yet.
+     */
+    public Duration getLastReloadDuration() {
+        return lastReloadDuration;
+    }
+
+    /**
+     * Returns how often the prefilter let inputs through to matching (hits) or returned them unscanned (misses).
+     */
+    public PrefilterStats getPrefilterStats() {
+        return prefilterStats;
+    }
+
+    /**
+     * Returns whether the current snapshot may be out of date because the database couldn't be read.
+     */
+    public boolean isStale() {
+        return staleSince != null;
+    }
+
+    /**
+     * Returns when the snapshot became stale, or {@code null} if it isn't.
+     */
+    public Instant getStaleSince() {
+        return staleSince;
+    }
+
+    /**
+     * Returns why the snapshot is stale, or {@code null} if it isn't.
+     */
+    public String getStaleReason() {
+        return staleReason;
+    }
+
+    private void markStale(RuntimeException cause) {
+        staleReason = cause.getMessage();
+        if (staleSince == null) {
+            staleSince = Instant.now();
+        }
+    }
+
+    private long storedVersion() {
+        return dictionaryVersionRepository.findById(DictionaryVersion.SINGLETON_ID)
+                .map(DictionaryVersion::getVersion)
+                .orElse(0L);
+    }
+
+    private synchronized DictionarySnapshot publish(long sourceVersion, AhoCorasickEngine engine, long startNanos) {
+        DictionarySnapshot next = new DictionarySnapshot(versionCounter.incrementAndGet(), sourceVersion,
+                engine.withPrefilterStats(prefilterStats));
+        snapshot.set(next);
+        lastReloadDuration = Duration.ofNanos(System.nanoTime() - startNanos);
+        log.debug("Published dictionary snapshot v{} (stored version {}) with {} terms ({} bytes, {}) in {} ms.",
+                next.version(), sourceVersion, engine.getTermCount(), engine.getFootprintBytes(),
+                engine.getStorage(), lastReloadDuration.toMillis());
+        return next;
+    }
+
+    /** Reads the persisted snapshot; a missing, unreadable or corrupt file just means there is none. */
+    private Optional<SnapshotFile.Loaded> readPersisted() {
+        if (snapshotFile.isBlank()) return Optional.empty();
+        try {
+            return SnapshotFile.read(Path.of(snapshotFile));
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Ignoring unusable dictionary snapshot {}: {}", snapshotFile, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /** Writes {@code published} to the snapshot file. Failing to do so only costs a rebuild on the next start. */
+    private void persist(DictionarySnapshot published) {
+        if (snapshotFile.isBlank()) return;
+        try {
+            SnapshotFile.write(Path.of(snapshotFile), published.sourceVersion(), published.engine());
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Could not persist dictionary snapshot to {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.sqlsanitize.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * Writes every stored sensitive word/phrase to a stream.
+ *
+ * <p>Rows come straight off a forward-only JDBC cursor ({@code sanitize.export.fetch-size} rows per round trip) and
+ * are written as they are read, so memory use doesn't depend on the size of the dictionary, unlike
+ * {@link SensitiveWordService#getAllSensitiveWords()}. The output is UTF-8, sorted by word, and can be fed back to
+ * {@link SensitiveWordImportService}.</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SensitiveWordExportService {
+
+    private static final String SELECT_SQL = "select id, word from sensitive_words order by word";
+
+    /** Chars buffered before they are written to the output stream. */
+    private static final int BUFFER_SIZE = 8192;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    /** Rows fetched from the database per round trip. */
+    @Value("${sanitize.export.fetch-size:1000}")
+    private int fetchSize = 1000;
+
+    /**
+     * Writes all stored words to {@code out}.
+     *
+     * @param format how to lay out the rows
+     * @param out    where to write; flushed but not closed
+     * @return number of words written
+     * @throws IOException if writing fails
+     */
+    public long export(WordFileFormat format, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        JsonGenerator json = format == WordFileFormat.NDJSON ? jsonFactory.createGenerator(writer) : null;
+        if (json != null) {
+            json.setRootValueSeparator(null);   // records are separated by line breaks instead
+        } else {
+            writer.write("word,id\n");
+        }
+
+        long[] rows = {0};
+        RowCallbackHandler handler = rs -> {
+            try {
+                if (json != null) {
+                    writeJson(json, rs.getLong(1), rs.getString(2));
+                } else {
+                    writeCsv(writer, rs.getLong(1), rs.getString(2));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            rows[0]++;
+        };
+        try {
+            jdbcTemplate.query(con -> {
+                PreparedStatement statement =
+                        con.prepareStatement(SELECT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                return statement;
+            }, handler);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        if (json != null) json.flush();
+        writer.flush();
+        log.debug("Exported {} sensitive words as {} in {} ms.", rows[0], format, (System.nanoTime() - start) / 1_000_000);
+        return rows[0];
+    }
+
+    private static void writeJson(JsonGenerator json, long id, String word) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", id);
+        json.writeStringField("word", word);
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    private static void writeCsv(Writer writer, long id, String word) throws IOException {
+        if (word.indexOf(',') >= 0 || word.indexOf('"') >= 0 || word.indexOf('\n') >= 0 || word.indexOf('\r') >= 0) {
+            writer.write('"');
+            writer.write(word.replace("\"", "\"\""));
+            writer.write('"');
+        } else {
+            writer.write(word);
+        }
+        writer.write(',');
+        writer.write(Long.toString(id));
+        writer.write('\n');
+    }
+}
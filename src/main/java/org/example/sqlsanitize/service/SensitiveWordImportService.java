@@ -0,0 +1,228 @@
+package org.example.sqlsanitize.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.sqlsanitize.dto.ImportResultDTO;
+import org.example.sqlsanitize.util.WordUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Imports many sensitive words/phrases at once from an uploaded file.
+ *
+ * <p>The upload is read record by record, and every term goes through {@link WordUtils#validateAndNormalize(String)}
+ * like a single add. New terms are written in batches of {@code sanitize.import.batch-size} rows, each batch in its
+ * own transaction, so a large import never holds one long transaction or more than one batch in memory. Words
+ * already stored are skipped by the insert itself, so only repeats within a batch are tracked here. Each batch
+ * bumps the stored dictionary version, and a single rebuild is requested once the whole file is in.</p>
+ *
+ * <p>An import is not atomic: if it fails halfway, the batches written so far stay, and the rebuild is still
+ * requested for them.</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SensitiveWordImportService {
+
+    /** Inserts a term unless it is stored already (e.g. added by someone else since the import started). */
+    private static final String UPSERT_SQL =
+            "insert into sensitive_words (word) select ? where not exists (select 1 from sensitive_words where word = ?)";
+
+    private final SensitiveWordDictionary sensitiveWordDictionary;
+    private final DictionaryRebuildScheduler dictionaryRebuildScheduler;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    /** Rows per insert batch (and transaction). */
+    @Value("${sanitize.import.batch-size:1000}")
+    private int batchSize = 1000;
+
+    /**
+     * Imports the terms read from {@code in}.
+     *
+     * <p>Blank terms and records that can't be parsed are counted as rejected rather than failing the import.</p>
+     *
+     * @param in     the uploaded file; read to the end but not closed
+     * @param format how {@code in} is laid out
+     * @return how many terms were inserted, skipped as duplicates, and rejected
+     * @throws IOException if reading {@code in} fails
+     */
+    public ImportResultDTO importWords(Reader in, WordFileFormat format) throws IOException {
+        long start = System.nanoTime();
+        BufferedReader reader = in instanceof BufferedReader buffered ? buffered : new BufferedReader(in);
+
+        long inserted = 0, skipped = 0, rejected = 0;
+        Set<String> inBatch = new HashSet<>();
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        boolean first = true;
+        try {
+            for (String record = nextRecord(reader, format); record != null; record = nextRecord(reader, format)) {
+                boolean header = first && format == WordFileFormat.CSV;
+                first = false;
+                String raw;
+                try {
+                    raw = parse(record, format);
+                } catch (IllegalArgumentException | JsonProcessingException e) {
+                    rejected++;
+                    continue;
+                }
+                if (header && raw.trim().equalsIgnoreCase("word")) continue;
+
+                String normalized;
+                try {
+                    normalized = WordUtils.validateAndNormalize(raw);
+                } catch (IllegalArgumentException e) {
+                    rejected++;
+                    continue;
+                }
+                if (!inBatch.add(normalized)) {
+                    skipped++;
+                    continue;
+                }
+
+                batch.add(new Object[]{normalized, normalized});
+                if (batch.size() == batchSize) {
+                    int rows = insert(batch);
+                    inserted += rows;
+                    skipped += batchSize - rows;
+                    batch.clear();
+                    inBatch.clear();
+                }
+            }
+            int rows = insert(batch);
+            inserted += rows;
+            skipped += batch.size() - rows;
+        } finally {
+            // Batches already committed bumped the stored version, even if a later read or batch failed.
+            if (inserted > 0) {
+                dictionaryRebuildScheduler.rebuildForCommittedChanges();
+            }
+        }
+        log.info("Imported sensitive words: inserted={}, skipped={}, rejected={} in {} ms.",
+                inserted, skipped, rejected, (System.nanoTime() - start) / 1_000_000);
+        return new ImportResultDTO(inserted, skipped, rejected);
+    }
+
+    /** Writes {@code batch} in its own transaction; returns how many of its terms were actually inserted. */
+    private int insert(List<Object[]> batch) {
+        if (batch.isEmpty()) return 0;
+        Integer inserted = transactionTemplate.execute(status -> {
+            int rows = 0;
+            for (int count : jdbcTemplate.batchUpdate(UPSERT_SQL, batch)) {
+                // Some drivers don't report per-row counts for batches; the not-exists check still held.
+                if (count > 0 || count == Statement.SUCCESS_NO_INFO) rows++;
+            }
+            if (rows > 0) {
+                sensitiveWordDictionary.markChanged();
+            }
+            return rows;
+        });
+        return inserted == null ? 0 : inserted;
+    }
+
+    /** @return the next non-blank line (NDJSON) or CSV record, or {@code null} at the end of the input */
+    private static String nextRecord(BufferedReader reader, WordFileFormat format) throws IOException {
+        if (format == WordFileFormat.CSV) {
+            return nextCsvRecord(reader);
+        }
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.isBlank()) return line;
+        }
+        return null;
+    }
+
+    /**
+     * Reads one CSV record, which may span lines inside a quoted field; blank lines are skipped.
+     *
+     * @return the record as it appears in the input (without the line break), or {@code null} at the end of the input
+     */
+    private static String nextCsvRecord(BufferedReader reader) throws IOException {
+        StringBuilder record = new StringBuilder();
+        boolean quoted = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (!quoted && (c == '\n' || c == '\r')) {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') reader.reset();
+                }
+                if (!record.isEmpty()) break;
+                continue;   // blank line
+            }
+            if (c == '"') quoted = !quoted;   // an escaped "" toggles twice
+            record.append((char) c);
+        }
+        return record.isEmpty() ? null : record.toString();
+    }
+
+    /** @return the raw term held by {@code record} */
+    private String parse(String record, WordFileFormat format) throws IOException {
+        return format == WordFileFormat.CSV ? firstCsvField(record) : parseJson(record);
+    }
+
+    /** @return the first field of a CSV record, with its quoting undone */
+    private static String firstCsvField(String record) {
+        if (!record.startsWith("\"")) {
+            int comma = record.indexOf(',');
+            return comma < 0 ? record : record.substring(0, comma);
+        }
+        StringBuilder field = new StringBuilder();
+        for (int i = 1; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (c != '"') {
+                field.append(c);
+            } else if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                field.append('"');
+                i++;
+            } else if (i + 1 == record.length() || record.charAt(i + 1) == ',') {
+                return field.toString();
+            } else {
+                break;
+            }
+        }
+        throw new IllegalArgumentException("Malformed quoted CSV field: " + record);
+    }
+
+    /** @return the string of an NDJSON line, or its {@code word} field if it is an object */
+    private String parseJson(String line) throws IOException {
+        try (JsonParser json = jsonFactory.createParser(line)) {
+            JsonToken token = json.nextToken();
+            String term = null;
+            if (token == JsonToken.VALUE_STRING) {
+                term = json.getText();
+            } else if (token == JsonToken.START_OBJECT) {
+                while (json.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = json.currentName();
+                    JsonToken value = json.nextToken();
+                    if (name.equals("word") && value == JsonToken.VALUE_STRING) {
+                        term = json.getText();
+                    } else {
+                        json.skipChildren();
+                    }
+                }
+            }
+            if (term == null || json.nextToken() != null) {
+                throw new IllegalArgumentException("Not a JSON string or {\"word\": ...} object: " + line);
+            }
+            return term;
+        }
+    }
+}
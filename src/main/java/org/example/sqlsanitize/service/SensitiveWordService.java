@@ -1,18 +1,31 @@
 package org.example.sqlsanitize.service;
 
 import lombok.RequiredArgsConstructor;
+import org.example.sqlsanitize.engine.AhoCorasickEngine;
+import org.example.sqlsanitize.engine.DictionarySnapshot;
+import org.example.sqlsanitize.engine.MatchSpans;
+import org.example.sqlsanitize.engine.StreamingSanitizer;
 import org.example.sqlsanitize.model.SensitiveWord;
 import org.example.sqlsanitize.repository.SensitiveWordRepository;
 import org.example.sqlsanitize.util.WordUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.OptionalLong;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Handles the main logic for working with sensitive words/phrases.
@@ -27,13 +40,36 @@ import java.util.regex.Pattern;
  * </ul>
  *
  * <p>Words are normalized (trimmed and lowercased) before saving.
- * Matching in text is case-insensitive and uses safe regex boundaries so only whole matches are replaced.</p>
+ * Matching in text is case-insensitive and uses the same boundaries as {@link WordUtils#buildBoundaryRegex(String)}
+ * so only whole matches are replaced.</p>
+ *
+ * <p>Sanitizing runs against the in-memory {@link SensitiveWordDictionary}; every change made here asks the
+ * {@link DictionaryRebuildScheduler} to refresh it once the transaction commits. Until a dictionary is loaded,
+ * sanitizing, matching and detecting throw {@link DictionaryUnavailableException} instead of passing text through.</p>
  */
 @Service
 @RequiredArgsConstructor
 public class SensitiveWordService {
 
     private final SensitiveWordRepository sensitiveWordRepository;
+    private final SensitiveWordDictionary sensitiveWordDictionary;
+    private final DictionaryRebuildScheduler dictionaryRebuildScheduler;
+    private final SanitizeResultCache sanitizeResultCache;
+
+    /** Chars read from the input per step when sanitizing a stream. */
+    private static final int STREAM_CHUNK_SIZE = 8192;
+
+    /** Largest number of texts accepted by {@link #sanitizeAll(List)}. */
+    @Value("${sanitize.batch.max-size:1000}")
+    private int maxBatchSize;
+
+    /** Inputs of at least this many chars are sanitized in parallel; {@code 0} turns that off. */
+    @Value("${sanitize.parallel.threshold:1048576}")
+    private int parallelThreshold;
+
+    /** Target chunk size (chars) for parallel sanitizing. */
+    @Value("${sanitize.parallel.chunk-size:262144}")
+    private int parallelChunkSize;
 
     /**
      * Returns all stored sensitive words/phrases, sorted alphabetically (ignoring case).
@@ -65,7 +101,9 @@ public class SensitiveWordService {
 
         SensitiveWord sWord = new SensitiveWord();
         sWord.setWord(normalizedWord);
-        return sensitiveWordRepository.save(sWord);
+        SensitiveWord saved = sensitiveWordRepository.save(sWord);
+        dictionaryRebuildScheduler.requestRebuild();
+        return saved;
     }
 
     /**
@@ -99,7 +137,9 @@ public class SensitiveWordService {
                 });
 
         existing.setWord(normalized);
-        return sensitiveWordRepository.save(existing);
+        SensitiveWord saved = sensitiveWordRepository.save(existing);
+        dictionaryRebuildScheduler.requestRebuild();
+        return saved;
     }
 
     /**
@@ -116,42 +156,138 @@ public class SensitiveWordService {
             throw new IllegalArgumentException("ID must not be null");
         }
         sensitiveWordRepository.deleteById(id);
+        dictionaryRebuildScheduler.requestRebuild();
     }
 
     /**
      * Masks any stored sensitive words/phrases in the given text.
      *
-     * <p>Matching is case-insensitive. Whole words use \b boundaries;
-     * phrases or special characters use lookarounds so they’re matched exactly,
-     * without touching similar words.</p>
+     * <p>Matching is case-insensitive. Whole words and phrases/special characters are only matched when they
+     * stand alone (surrounded by non-word chars or the edges of the text), and the longest term wins, so
+     * "select * from" is masked before "select". All terms are found in one pass over the input, using the
+     * current dictionary snapshot (no database access).</p>
+     *
+     * <p>Inputs of at least {@code sanitize.parallel.threshold} chars are split into chunks and scanned on the
+     * common {@link ForkJoinPool}; the result is the same as the sequential one. Smaller ones go through the
+     * {@link SanitizeResultCache}, so a text seen before with the same dictionary isn't scanned again.</p>
      *
      * @param input the text to sanitize; returns it as-is if null/empty
      * @return sanitized text with matches replaced by asterisks (same length as the match)
+     * @throws DictionaryUnavailableException if no dictionary is loaded yet
      */
-    @Transactional(readOnly = true)
     public String sanitize(String input) {
         if (input == null || input.isEmpty()) return input;
+        DictionarySnapshot snapshot = sensitiveWordDictionary.require();
+        if (parallelThreshold > 0 && input.length() >= parallelThreshold) {
+            return snapshot.engine().sanitizeParallel(input, ForkJoinPool.commonPool(), parallelChunkSize);
+        }
+        return sanitizeResultCache.sanitize(snapshot, input);
+    }
 
-        String result = input;
+    /**
+     * Sanitizes many texts in one go, all against the same dictionary snapshot.
+     *
+     * @param inputs texts to sanitize
+     * @return sanitized texts, in the same order as {@code inputs}
+     * @throws IllegalArgumentException if {@code inputs} is null or has more than {@code sanitize.batch.max-size} entries
+     */
+    public List<String> sanitizeAll(List<String> inputs) {
+        if (inputs == null) {
+            throw new IllegalArgumentException("Inputs must not be null");
+        }
+        if (inputs.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch too large: " + inputs.size() + " inputs (max " + maxBatchSize + ")");
+        }
 
-        // We sort the word so the longest term (word/phrase) is first, so that we don't mask SELECT but another entry
-        // wanted SELECT * FROM to be masked
-        List<SensitiveWord> terms = new ArrayList<>(sensitiveWordRepository.findAll());
-        terms.sort(Comparator.comparingInt((SensitiveWord sW) -> sW.getWord() == null
-                ? 0
-                : sW.getWord().trim().length()).reversed());
+        DictionarySnapshot snapshot = sensitiveWordDictionary.require();
+        List<String> sanitized = new ArrayList<>(inputs.size());
+        for (String input : inputs) {
+            sanitized.add(input == null || input.isEmpty() ? input : sanitizeResultCache.sanitize(snapshot, input));
+        }
+        return sanitized;
+    }
 
-        for (SensitiveWord w : terms) {
-            if (w.getWord() == null) continue;
-            String term = w.getWord().trim();
-            if (term.isEmpty()) continue;
+    /**
+     * Fails with {@link DictionaryUnavailableException} if no dictionary is loaded yet.
+     * <p>Lets a streaming caller refuse before it commits to a response, rather than midway through it.</p>
+     */
+    public void requireDictionary() {
+        sensitiveWordDictionary.require();
+    }
 
-            String regex = WordUtils.buildBoundaryRegex(term);
-            String mask = "*".repeat(term.length());
+    /**
+     * Sanitizes a byte stream of text, writing the result to {@code out} as it goes.
+     *
+     * <p>Meant for very large bodies (e.g. SQL exports): see {@link #sanitize(Reader, Writer)}.</p>
+     *
+     * @param in      text to sanitize; read to the end but not closed
+     * @param out     where sanitized text is written; flushed but not closed
+     * @param charset encoding used for both streams
+     * @throws IOException if reading or writing fails
+     */
+    public void sanitizeStream(InputStream in, OutputStream out, Charset charset) throws IOException {
+        sanitize(new InputStreamReader(in, charset), new OutputStreamWriter(out, charset));
+    }
 
-            Pattern p = Pattern.compile(regex);
-            result = p.matcher(result).replaceAll(Matcher.quoteReplacement(mask));
+    /**
+     * Sanitizes text read from {@code in}, writing the result to {@code out} as it goes.
+     *
+     * <p>Only a small window of the text is held in memory, so memory use depends on the longest stored term
+     * rather than on the input size. Terms that straddle read boundaries are handled the same as in
+     * {@link #sanitize(String)}.</p>
+     *
+     * @param in  text to sanitize; read to the end but not closed
+     * @param out where sanitized text is written; flushed but not closed
+     * @throws IOException if reading or writing fails
+     */
+    public void sanitize(Reader in, Writer out) throws IOException {
+        StreamingSanitizer sanitizer = sensitiveWordDictionary.require().engine().newStreamingSanitizer(out);
+
+        char[] chunk = new char[STREAM_CHUNK_SIZE];
+        int read;
+        while ((read = in.read(chunk)) != -1) {
+            sanitizer.write(chunk, 0, read);
         }
-        return result;
+        sanitizer.finish();
+    }
+
+    /**
+     * Sanitizes {@code input} and appends the result to {@code out}.
+     *
+     * <p>Lets in-process callers sanitize buffers (e.g. a {@link StringBuilder} or {@link java.nio.CharBuffer})
+     * without turning them into Strings first; unmatched text is appended straight from {@code input}.</p>
+     *
+     * @param input text to sanitize; nothing is appended if null
+     * @param out   where the sanitized text is appended
+     * @throws IOException if appending to {@code out} fails
+     */
+    public void sanitize(CharSequence input, Appendable out) throws IOException {
+        if (input == null) return;
+        sensitiveWordDictionary.require().engine().sanitize(input, out);
+    }
+
+    /**
+     * Finds where stored words/phrases occur in the text, without building the masked string.
+     *
+     * <p>Returns exactly the spans {@link #sanitize(String)} would mask, found in one pass.</p>
+     *
+     * @param input the text to scan; null/empty gives no matches
+     * @return the matches as parallel arrays of start/end offsets and term IDs
+     */
+    public MatchSpans findMatches(String input) {
+        return sensitiveWordDictionary.require().engine().findSpans(input);
+    }
+
+    /**
+     * Checks whether the text contains any stored word/phrase, stopping at the first one found.
+     *
+     * <p>Meant as a cheap filter before full sanitizing: clean text is scanned once with no allocation.</p>
+     *
+     * @param input the text to check; null/empty never matches
+     * @return ID of the first term found, or empty if the text is clean
+     */
+    public OptionalLong findFirstMatch(String input) {
+        long termId = sensitiveWordDictionary.require().engine().findFirst(input);
+        return termId == AhoCorasickEngine.NO_MATCH ? OptionalLong.empty() : OptionalLong.of(termId);
     }
 }
@@ -0,0 +1,19 @@
+package org.example.sqlsanitize.service;
+
+/**
+ * File layouts for importing and exporting sensitive words/phrases.
+ */
+public enum WordFileFormat {
+
+    /**
+     * Newline-delimited JSON, one record per line. Export writes {@code {"id": 1, "word": "select"}}; import takes
+     * such objects (only {@code word} is used) or plain JSON strings.
+     */
+    NDJSON,
+
+    /**
+     * CSV with the word in the first column. Export writes a {@code word,id} header; import skips a {@code word}
+     * header if present.
+     */
+    CSV
+}
@@ -8,6 +8,8 @@ import java.util.regex.Pattern;
  * <ul>
  *   <li>Normalize user input (trim + lowercase)</li>
  *   <li>Build a safe, case-insensitive regex that matches whole words or full phrases</li>
+ *   <li>Classify characters the same way the regex boundaries do</li>
+ *   <li>Fold case char by char, with a table lookup for ASCII</li>
  * </ul>
  */
 public final class WordUtils {
@@ -33,10 +35,21 @@ public final class WordUtils {
      */
     private static final String LOOKAROUND_SUFFIX = "(?=\\W|$)";
 
+    /** Lower-case form of every ASCII char, so the common case needs neither a method call nor case tables. */
+    private static final char[] ASCII_LOWER = new char[0x80];
+
+    static {
+        for (char c = 0; c < ASCII_LOWER.length; c++) {
+            ASCII_LOWER[c] = c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+    }
+
     private WordUtils() { }
 
     /**
      * Validate that input is non-null and not blank, then trim and lowercase it.
+     * <p>ASCII-only input is lowercased through a lookup table, and returned without copying when it already is;
+     * only input with other chars goes through {@link String#toLowerCase()}.</p>
      *
      * @param rawInput raw word/phrase from the client
      * @return trimmed, lowercase version of the input
@@ -50,7 +63,35 @@ public final class WordUtils {
         if (trimmedInput.isEmpty()) {
             throw new IllegalArgumentException("Word must not be blank");
         }
-        return trimmedInput.toLowerCase();
+        return toLowerCase(trimmedInput);
+    }
+
+    /**
+     * Fold the case of a single char, the way the sanitizer compares terms and text.
+     *
+     * @param c the char to fold
+     * @return the lower-case form of {@code c} (see {@link Character#toLowerCase(char)})
+     */
+    public static char foldCase(char c) {
+        return c < 0x80 ? ASCII_LOWER[c] : Character.toLowerCase(c);
+    }
+
+    private static String toLowerCase(String s) {
+        int n = s.length();
+        int firstUpper = -1;
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            if (c >= 0x80) return s.toLowerCase();
+            if (firstUpper < 0 && ASCII_LOWER[c] != c) firstUpper = i;
+        }
+        if (firstUpper < 0) return s;
+
+        char[] lower = new char[n];
+        s.getChars(0, firstUpper, lower, 0);
+        for (int i = firstUpper; i < n; i++) {
+            lower[i] = ASCII_LOWER[s.charAt(i)];
+        }
+        return new String(lower);
     }
 
     /**
@@ -76,4 +117,48 @@ public final class WordUtils {
         // Otherwise: phrases/symbols; anchor with non-word or string edges
         return CASE_INSENSITIVE_FLAG + LOOKAROUND_PREFIX + quotedTerm + LOOKAROUND_SUFFIX;
     }
+
+    /**
+     * Check whether a char counts as a "word" char next to a pure-word term: a letter or digit in any script, or
+     * underscore.
+     * <p>A match is only valid when the chars just outside it are <em>not</em> word chars. This is what {@code \b}
+     * in {@link #buildBoundaryRegex(String)} treats as a word char, so "caf" doesn't match inside "café".</p>
+     *
+     * @param c the char to check
+     * @return {@code true} if {@code c} is a letter, a digit or {@code _}
+     */
+    public static boolean isWordChar(char c) {
+        if (c < 0x80) return isAsciiWordChar(c);
+        return Character.isLetterOrDigit(c);
+    }
+
+    /**
+     * Check whether a char counts as a "word" char next to a phrase or symbol term: {@code [A-Za-z0-9_]} only.
+     * <p>That is what the {@code \W} lookarounds in {@link #buildBoundaryRegex(String)} allow, so "order by" still
+     * matches right after "é".</p>
+     *
+     * @param c the char to check
+     * @return {@code true} if {@code c} is an ASCII letter, digit or {@code _}
+     */
+    public static boolean isAsciiWordChar(char c) {
+        return (c >= 'a' && c <= 'z')
+                || (c >= 'A' && c <= 'Z')
+                || (c >= '0' && c <= '9')
+                || c == '_';
+    }
+
+    /**
+     * Check whether a term gets {@code \b} boundaries from {@link #buildBoundaryRegex(String)} rather than
+     * lookarounds, i.e. whether it is made only of {@code [A-Za-z0-9_]}.
+     *
+     * @param term the term to check
+     * @return {@code true} if {@code term} is a non-empty pure word
+     */
+    public static boolean isWordOnly(CharSequence term) {
+        int n = term.length();
+        for (int i = 0; i < n; i++) {
+            if (!isAsciiWordChar(term.charAt(i))) return false;
+        }
+        return n > 0;
+    }
 }
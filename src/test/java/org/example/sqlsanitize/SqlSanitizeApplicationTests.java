@@ -1,11 +1,15 @@
 package org.example.sqlsanitize;
 
+import org.example.sqlsanitize.repository.DictionaryVersionRepository;
+import org.example.sqlsanitize.repository.SeedFileStateRepository;
 import org.example.sqlsanitize.repository.SensitiveWordRepository;
 import org.example.sqlsanitize.service.SensitiveWordService;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Boots the Spring context to ensure basic wiring is OK.
@@ -25,6 +29,14 @@ class SqlSanitizeApplicationTests {
     SensitiveWordService sensitiveWordService;
     @MockBean
     SensitiveWordRepository sensitiveWordRepository;
+    @MockBean
+    DictionaryVersionRepository dictionaryVersionRepository;
+    @MockBean
+    SeedFileStateRepository seedFileStateRepository;
+    @MockBean
+    TransactionTemplate transactionTemplate;
+    @MockBean
+    JdbcTemplate jdbcTemplate;
 
     @Test
     void contextLoads() {
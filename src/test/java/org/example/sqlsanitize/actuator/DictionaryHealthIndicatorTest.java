@@ -0,0 +1,63 @@
+package org.example.sqlsanitize.actuator;
+
+import org.example.sqlsanitize.engine.AhoCorasickEngine;
+import org.example.sqlsanitize.engine.DictionarySnapshot;
+import org.example.sqlsanitize.service.SensitiveWordDictionary;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DictionaryHealthIndicatorTest {
+
+    @Mock
+    SensitiveWordDictionary dictionary;
+
+    @InjectMocks
+    DictionaryHealthIndicator indicator;
+
+    private static final DictionarySnapshot LOADED =
+            new DictionarySnapshot(1L, 7L, AhoCorasickEngine.compile(List.of()));
+
+    @Test
+    void up_whenLoadedAndInSync() {
+        when(dictionary.current()).thenReturn(LOADED);
+
+        Health health = indicator.health();
+
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals(7L, health.getDetails().get("sourceVersion"));
+    }
+
+    @Test
+    void stale_whenServingUncheckedSnapshot() {
+        Instant since = Instant.now();
+        when(dictionary.current()).thenReturn(LOADED);
+        when(dictionary.getStaleSince()).thenReturn(since);
+        when(dictionary.getStaleReason()).thenReturn("db down");
+
+        Health health = indicator.health();
+
+        assertEquals(DictionaryHealthIndicator.STALE, health.getStatus());
+        assertEquals(since, health.getDetails().get("staleSince"));
+        assertEquals("db down", health.getDetails().get("reason"));
+    }
+
+    @Test
+    void down_whenNothingLoaded() {
+        when(dictionary.current()).thenReturn(DictionarySnapshot.EMPTY);
+        when(dictionary.getStaleSince()).thenReturn(Instant.now());
+
+        assertEquals(Status.DOWN, indicator.health().getStatus());
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.sqlsanitize.bt;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeedFileReaderTest {
+
+    private static List<String> read(byte[] content) throws IOException {
+        List<String> terms = new ArrayList<>();
+        try (SeedFileReader reader = SeedFileReader.open(new ByteArrayInputStream(content), new JsonFactory())) {
+            for (String term = reader.next(); term != null; term = reader.next()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    private static byte[] utf8(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(content);
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    void jsonArray() throws Exception {
+        assertEquals(List.of("SELECT", "order by", "Ärger"), read(utf8("\uFEFF [\"SELECT\",\n \"order by\", \"\\u00c4rger\"]")));
+        assertEquals(List.of(), read(utf8("[]")));
+    }
+
+    @Test
+    void newlineDelimitedJson() throws Exception {
+        assertEquals(List.of("select", "order by", "x"), read(utf8("\"select\"\n\"order by\"\n\n\"x\"\n")));
+    }
+
+    @Test
+    void plainLines_skipBlankLines() throws Exception {
+        assertEquals(List.of("select", "order by", "Ärger"), read(utf8("\uFEFFselect\n\norder by\r\nÄrger\n")));
+        assertEquals(List.of(), read(new byte[0]));
+    }
+
+    @Test
+    void gzip_isDetectedByContent() throws Exception {
+        assertEquals(List.of("select", "from"), read(gzip(utf8("[\"select\", \"from\"]"))));
+        assertEquals(List.of("select", "from"), read(gzip(utf8("select\nfrom\n"))));
+    }
+
+    @Test
+    void nonStringTerm_isRejected() {
+        assertThrows(JsonParseException.class, () -> read(utf8("[\"select\", 1]")));
+    }
+}
@@ -0,0 +1,159 @@
+package org.example.sqlsanitize.bt;
+
+import org.example.sqlsanitize.model.SeedFileState;
+import org.example.sqlsanitize.repository.DictionaryVersionRepository;
+import org.example.sqlsanitize.repository.SeedFileStateRepository;
+import org.example.sqlsanitize.service.SensitiveWordDictionary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SensitiveWordSeederTest {
+
+    @Mock
+    SensitiveWordDictionary dictionary;
+    @Mock
+    TransactionTemplate transactionTemplate;
+    @Mock
+    JdbcTemplate jdbcTemplate;
+    @Mock
+    SeedFileStateRepository seedFileStateRepository;
+    @Mock
+    DictionaryVersionRepository dictionaryVersionRepository;
+
+    SensitiveWordSeeder seeder;
+
+    @BeforeEach
+    void setUp() {
+        seeder = new SensitiveWordSeeder(dictionary, transactionTemplate, jdbcTemplate,
+                seedFileStateRepository, dictionaryVersionRepository);
+        ReflectionTestUtils.setField(seeder, "batchSize", 2);
+        lenient().doAnswer(inv -> {
+            inv.<Consumer<TransactionStatus>>getArgument(0).accept(mock(TransactionStatus.class));
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(
+                inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(mock(TransactionStatus.class)));
+    }
+
+    private void seedFile(String json) {
+        ReflectionTestUtils.setField(seeder, "seedFile", new ByteArrayResource(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /** Answers batch inserts like the insert-if-absent statement would against a table holding {@code stored}. */
+    private List<List<String>> storedWords(String... stored) {
+        Set<String> table = new HashSet<>(List.of(stored));
+        List<List<String>> batches = new ArrayList<>();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(inv -> {
+            List<Object[]> rows = inv.getArgument(1);
+            batches.add(rows.stream().map(row -> (String) row[0]).toList());
+            return rows.stream().mapToInt(row -> table.add((String) row[1]) ? 1 : 0).toArray();
+        });
+        return batches;
+    }
+
+    @Test
+    void newTerms_areInsertedInBatches_andDuplicatesSkipped() throws Exception {
+        seedFile("[\"SELECT\", \"from\", \"Where\", \"WHERE\", \"FROM\", \"order by\", \"join\"]");
+        List<List<String>> batches = storedWords("select");
+
+        seeder.run();
+
+        assertEquals(List.of(List.of("select", "from"), List.of("where", "from"), List.of("order by", "join")), batches);
+        verify(dictionary, times(3)).markChanged();
+    }
+
+    @Test
+    void eachBatchCommitsOnItsOwn_andTheFileIsRecordedLast() throws Exception {
+        seedFile("[\"select\", \"from\", \"where\"]");
+        storedWords();
+
+        seeder.run();
+
+        InOrder order = inOrder(transactionTemplate, seedFileStateRepository);
+        order.verify(transactionTemplate, times(2)).execute(any());
+        order.verify(transactionTemplate).executeWithoutResult(any());
+        order.verify(seedFileStateRepository).save(any());
+        verify(dictionary, times(2)).markChanged();
+    }
+
+    @Test
+    void failedBatch_keepsEarlierOnes_recordsNothing_andFailsStartup() {
+        seedFile("[\"select\", \"from\", \"a term too long for its column\"]");
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenReturn(new int[]{1, 1})
+                .thenThrow(new DataIntegrityViolationException("String or binary data would be truncated"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> seeder.run());
+
+        verify(dictionary).markChanged();
+        verify(seedFileStateRepository, never()).save(any());
+    }
+
+    @Test
+    void unreachableDatabase_skipsSeeding() throws Exception {
+        seedFile("[\"select\"]");
+        when(seedFileStateRepository.findById(SeedFileState.SINGLETON_ID))
+                .thenThrow(new CannotCreateTransactionException("Could not open JPA EntityManager"));
+
+        seeder.run();
+
+        verifyNoInteractions(jdbcTemplate, dictionary);
+    }
+
+    @Test
+    void nothingNew_insertsNothing() throws Exception {
+        seedFile("[\"select\", \"FROM\"]");
+        storedWords("select", "from");
+
+        seeder.run();
+
+        verify(dictionary, never()).markChanged();
+    }
+
+    @Test
+    void unchangedFile_isNotSeededAgain() throws Exception {
+        storedWords();
+        seedFile("[\"select\"]");
+        seeder.run();
+        ArgumentCaptor<SeedFileState> applied = ArgumentCaptor.forClass(SeedFileState.class);
+        verify(seedFileStateRepository).save(applied.capture());
+        clearInvocations(transactionTemplate, jdbcTemplate, dictionary);
+
+        when(seedFileStateRepository.findById(SeedFileState.SINGLETON_ID)).thenReturn(Optional.of(applied.getValue()));
+        seeder.run();
+
+        verifyNoInteractions(transactionTemplate, jdbcTemplate, dictionary);
+
+        seedFile("[\"select\", \"from\"]");
+        seeder.run();
+
+        verify(jdbcTemplate).batchUpdate(anyString(), anyList());
+        verify(seedFileStateRepository, times(2)).save(any());
+    }
+}
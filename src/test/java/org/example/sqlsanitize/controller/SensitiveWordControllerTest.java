@@ -2,24 +2,45 @@ package org.example.sqlsanitize.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.sqlsanitize.api.ApiCode;
+import org.example.sqlsanitize.dto.ImportResultDTO;
+import org.example.sqlsanitize.dto.SanitizeBatchRequestDTO;
 import org.example.sqlsanitize.dto.SanitizeRequestDTO;
 import org.example.sqlsanitize.dto.SqlSanitizeWordDTO;
+import org.example.sqlsanitize.engine.MatchSpans;
 import org.example.sqlsanitize.model.SensitiveWord;
+import org.example.sqlsanitize.service.DictionaryUnavailableException;
+import org.example.sqlsanitize.service.SensitiveWordExportService;
+import org.example.sqlsanitize.service.SensitiveWordImportService;
 import org.example.sqlsanitize.service.SensitiveWordService;
+import org.example.sqlsanitize.service.WordFileFormat;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.OptionalLong;
+import java.util.zip.GZIPInputStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(SensitiveWordController.class)
@@ -30,6 +51,10 @@ class SensitiveWordControllerTest {
     MockMvc mockMvc;
     @MockBean
     SensitiveWordService service;
+    @MockBean
+    SensitiveWordImportService importService;
+    @MockBean
+    SensitiveWordExportService exportService;
 
     private final ObjectMapper om = new ObjectMapper();
 
@@ -99,4 +124,181 @@ class SensitiveWordControllerTest {
                 .andExpect(jsonPath("$.code").value(ApiCode.OK.getId()))
                 .andExpect(jsonPath("$.data").value("****** * from t ******** name"));
     }
+
+    @Test
+    void sanitize_withoutDictionary_isServiceUnavailable() throws Exception {
+        Mockito.when(service.sanitize(any()))
+                .thenThrow(new DictionaryUnavailableException("Sensitive word dictionary not loaded yet"));
+
+        mockMvc.perform(post("/api/sensitive-words/sanitize")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(new SanitizeRequestDTO("select 1"))))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void sanitizeBatch_returnsSanitizedStringsInOrder() throws Exception {
+        Mockito.when(service.sanitizeAll(eq(List.of("select 1", "hello"))))
+                .thenReturn(List.of("****** 1", "hello"));
+
+        var body = new SanitizeBatchRequestDTO(List.of("select 1", "hello"));
+
+        mockMvc.perform(post("/api/sensitive-words/sanitize/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(body)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value(ApiCode.OK.getId()))
+                .andExpect(jsonPath("$.data[0]").value("****** 1"))
+                .andExpect(jsonPath("$.data[1]").value("hello"));
+    }
+
+    @Test
+    void sanitizeBatch_tooManyInputs_isBadRequest() throws Exception {
+        Mockito.when(service.sanitizeAll(any()))
+                .thenThrow(new IllegalArgumentException("Batch too large: 2 inputs (max 1)"));
+
+        var body = new SanitizeBatchRequestDTO(List.of("select 1", "hello"));
+
+        mockMvc.perform(post("/api/sensitive-words/sanitize/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(body)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void sanitizeBatch_emptyInputs_isBadRequest() throws Exception {
+        var body = new SanitizeBatchRequestDTO(List.of());
+
+        mockMvc.perform(post("/api/sensitive-words/sanitize/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(body)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void sanitizeStream_streamsSanitizedText() throws Exception {
+        Mockito.doAnswer(inv -> {
+            InputStream in = inv.getArgument(0);
+            OutputStream out = inv.getArgument(1);
+            String text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            out.write(text.replace("select", "******").getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(service).sanitizeStream(any(InputStream.class), any(OutputStream.class), eq(StandardCharsets.UTF_8));
+
+        MvcResult result = mockMvc.perform(post("/api/sensitive-words/sanitize/stream")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("select 1 from t"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_PLAIN))
+                .andExpect(content().string("****** 1 from t"));
+    }
+
+    @Test
+    void sanitizeStream_withoutDictionary_isRefusedBeforeStreaming() throws Exception {
+        Mockito.doThrow(new DictionaryUnavailableException("Sensitive word dictionary not loaded yet"))
+                .when(service).requireDictionary();
+
+        mockMvc.perform(post("/api/sensitive-words/sanitize/stream")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("select 1 from t"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isServiceUnavailable());
+        Mockito.verify(service, Mockito.never()).sanitizeStream(any(), any(), any());
+    }
+
+    @Test
+    void findMatches_returnsParallelArrays() throws Exception {
+        Mockito.when(service.findMatches(eq("select * from t")))
+                .thenReturn(new MatchSpans(new int[]{0}, new int[]{6}, new long[]{1L}));
+
+        var body = new SanitizeRequestDTO("select * from t");
+
+        mockMvc.perform(post("/api/sensitive-words/matches")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(body)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value(ApiCode.OK.getId()))
+                .andExpect(jsonPath("$.data.starts[0]").value(0))
+                .andExpect(jsonPath("$.data.ends[0]").value(6))
+                .andExpect(jsonPath("$.data.termIds[0]").value(1));
+    }
+
+    @Test
+    void detect_returnsFirstTermId() throws Exception {
+        Mockito.when(service.findFirstMatch(eq("select 1")))
+                .thenReturn(OptionalLong.of(7L));
+
+        mockMvc.perform(post("/api/sensitive-words/detect")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(new SanitizeRequestDTO("select 1"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.sensitive").value(true))
+                .andExpect(jsonPath("$.data.termId").value(7));
+    }
+
+    @Test
+    void detect_cleanInput_returnsFalse() throws Exception {
+        Mockito.when(service.findFirstMatch(eq("hello")))
+                .thenReturn(OptionalLong.empty());
+
+        mockMvc.perform(post("/api/sensitive-words/detect")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(new SanitizeRequestDTO("hello"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.sensitive").value(false))
+                .andExpect(jsonPath("$.data.termId").doesNotExist());
+    }
+
+    @Test
+    void importWords_picksFormatFromContentType_andReturnsCounts() throws Exception {
+        Mockito.when(importService.importWords(any(Reader.class), eq(WordFileFormat.CSV)))
+                .thenAnswer(inv -> {
+                    Reader in = inv.getArgument(0);
+                    char[] buf = new char[64];
+                    int n = in.read(buf);
+                    return new ImportResultDTO(String.valueOf(buf, 0, n).equals("word\nselect\n") ? 1 : 0, 0, 0);
+                });
+
+        mockMvc.perform(post("/api/sensitive-words/import")
+                        .contentType("text/csv")
+                        .content("word\nselect\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value(ApiCode.OK.getId()))
+                .andExpect(jsonPath("$.data.inserted").value(1))
+                .andExpect(jsonPath("$.data.skipped").value(0))
+                .andExpect(jsonPath("$.data.rejected").value(0));
+    }
+
+    @Test
+    void export_streamsGzippedCsv() throws Exception {
+        Mockito.when(exportService.export(eq(WordFileFormat.CSV), any(OutputStream.class))).thenAnswer(inv -> {
+            inv.<OutputStream>getArgument(1).write("word,id\nselect,1\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/api/sensitive-words/export")
+                        .param("format", "CSV")
+                        .param("gzip", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertEquals("word,id\nselect,1\n", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void export_unknownFormat_isBadRequest() throws Exception {
+        mockMvc.perform(get("/api/sensitive-words/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
 }
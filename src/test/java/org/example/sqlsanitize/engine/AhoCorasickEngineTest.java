@@ -0,0 +1,294 @@
+package org.example.sqlsanitize.engine;
+
+import org.example.sqlsanitize.model.SensitiveWord;
+import org.example.sqlsanitize.util.WordUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AhoCorasickEngineTest {
+
+    private static AhoCorasickEngine engine(String... words) {
+        List<SensitiveWord> terms = new java.util.ArrayList<>();
+        long id = 1;
+        for (String w : words) {
+            terms.add(new SensitiveWord(id++, w));
+        }
+        return AhoCorasickEngine.compile(terms);
+    }
+
+    @Test
+    void masksWordsPhrasesAndSymbols_caseInsensitive() {
+        AhoCorasickEngine e = engine("select", "order by", "*");
+        assertEquals("****** * from t ******** name", e.sanitize("Select * from t order by name"));
+    }
+
+    @Test
+    void longestTermWins() {
+        AhoCorasickEngine e = engine("select", "select * from");
+        assertEquals("************* t", e.sanitize("SELECT * FROM t"));
+    }
+
+    @Test
+    void doesNotMatchInsideLongerWords() {
+        AhoCorasickEngine e = engine("select", "order");
+        assertEquals("selected preorder ******", e.sanitize("selected preorder select"));
+    }
+
+    @Test
+    void nonAsciiLetters_bindPureWords_butNotPhrases() {
+        AhoCorasickEngine e = engine("caf", "select", "order by", "*");
+        assertEquals("café CAFÉ ***. é********, ******** éselect selectä ä*",
+                e.sanitize("café CAFÉ caf. éorder by, order by éselect selectä ä*"));
+    }
+
+    @Test
+    void nextToNonAsciiLetters_sameAsBoundaryRegex_inEveryMode() throws Exception {
+        String[] terms = {"caf", "select", "order by", "*", "a.b"};
+        AhoCorasickEngine e = engine(terms);
+        String input = "café éselect selectä éorder byé ä* *ä ça.bç x_order by 中select 中order by中 é*é caf";
+
+        char[] expected = input.toCharArray();
+        for (String term : terms) {
+            java.util.regex.Matcher m = java.util.regex.Pattern.compile(WordUtils.buildBoundaryRegex(term)).matcher(input);
+            while (m.find()) {
+                java.util.Arrays.fill(expected, m.start(), m.end(), '*');
+            }
+        }
+        assertEquals(new String(expected), e.sanitize(input));
+        assertEquals(new String(expected), e.sanitizeParallel(input, java.util.concurrent.ForkJoinPool.commonPool(), 3));
+
+        java.io.StringWriter out = new java.io.StringWriter();
+        StreamingSanitizer s = e.newStreamingSanitizer(out);
+        for (char c : input.toCharArray()) {
+            s.write(new char[]{c}, 0, 1);
+        }
+        s.finish();
+        assertEquals(new String(expected), out.toString());
+    }
+
+    @Test
+    void phraseNeedsNonWordCharsAroundIt() {
+        AhoCorasickEngine e = engine("order by");
+        assertEquals("reorder by x, (********)", e.sanitize("reorder by x, (ORDER BY)"));
+    }
+
+    @Test
+    void overlappingMatches_areBothMasked() {
+        AhoCorasickEngine e = engine("a b", "b c");
+        assertEquals("***** d", e.sanitize("a b c d"));
+    }
+
+    @Test
+    void overlappingMatches_longerTermIsNotLeftShowing() {
+        AhoCorasickEngine e = engine("drop table", "table users password");
+        String input = "DROP TABLE USERS PASSWORD";
+
+        assertEquals("*************************", e.sanitize(input));
+        MatchSpans spans = e.findSpans(input);
+        assertArrayEquals(new int[]{0}, spans.starts());
+        assertArrayEquals(new int[]{input.length()}, spans.ends());
+        assertArrayEquals(new long[]{2}, spans.termIds());
+    }
+
+    @Test
+    void noMatch_returnsSameInstance() {
+        AhoCorasickEngine e = engine("select");
+        String input = "nothing to see here";
+        assertSame(input, e.sanitize(input));
+    }
+
+    @Test
+    void prefilter_countsSkippedAndScannedInputs() {
+        PrefilterStats stats = new PrefilterStats();
+        AhoCorasickEngine e = engine("select", "order by").withPrefilterStats(stats);
+        String clean = "nothing to view here";
+
+        assertSame(clean, e.sanitize(clean));
+        assertEquals(AhoCorasickEngine.NO_MATCH, e.findFirst("preselect"));
+        assertEquals(2, stats.getMisses());
+        assertEquals(0, stats.getHits());
+
+        assertEquals("order", e.sanitize("order"));
+        assertEquals("x sort, selection, ********", e.sanitize("x sort, selection, order by"));
+        assertEquals(2, stats.getMisses());
+        assertEquals(2, stats.getHits());
+        assertSame(stats, e.getPrefilterStats());
+    }
+
+    @Test
+    void emptyDictionary_returnsInput() {
+        AhoCorasickEngine e = engine();
+        assertEquals(0, e.getTermCount());
+        assertEquals("select", e.sanitize("select"));
+    }
+
+    @Test
+    void blankAndDuplicateTerms_areIgnored() {
+        AhoCorasickEngine e = engine("select", "SELECT", "  ", "from");
+        assertEquals(2, e.getTermCount());
+        assertEquals(6, e.getMaxTermLength());
+    }
+
+    @Test
+    void sanitizeToAppendable_appendsToExistingContent() throws Exception {
+        AhoCorasickEngine e = engine("select");
+        StringBuilder out = new StringBuilder("log: ");
+        e.sanitize("select 1 -- selected", out);
+        assertEquals("log: ****** 1 -- selected", out.toString());
+    }
+
+    @Test
+    void streaming_sameAsStringSanitize_forAnyChunking() throws Exception {
+        AhoCorasickEngine e = engine("select", "select * from", "order by", "*");
+        String input = "SELECT * FROM t order by x; select *, a from b order  by c*";
+        String expected = e.sanitize(input);
+
+        for (int chunk = 1; chunk <= input.length(); chunk++) {
+            java.io.StringWriter out = new java.io.StringWriter();
+            StreamingSanitizer s = e.newStreamingSanitizer(out);
+            char[] chars = input.toCharArray();
+            for (int off = 0; off < chars.length; off += chunk) {
+                s.write(chars, off, Math.min(chunk, chars.length - off));
+            }
+            s.finish();
+            assertEquals(expected, out.toString(), "chunk size " + chunk);
+        }
+    }
+
+    @Test
+    void findSpans_reportsOffsetsAndTermIds() {
+        AhoCorasickEngine e = engine("select", "order by", "*");
+
+        MatchSpans spans = e.findSpans("Select * from t order by name");
+
+        assertEquals(3, spans.size());
+        assertArrayEquals(new int[]{0, 7, 16}, spans.starts());
+        assertArrayEquals(new int[]{6, 8, 24}, spans.ends());
+        assertArrayEquals(new long[]{1L, 3L, 2L}, spans.termIds());
+    }
+
+    @Test
+    void findSpans_noMatch_isEmpty() {
+        assertEquals(0, engine("select").findSpans("selected").size());
+        assertSame(MatchSpans.EMPTY, engine("select").findSpans(""));
+    }
+
+    @Test
+    void findFirst_returnsFirstValidMatch_orNoMatch() {
+        AhoCorasickEngine e = engine("select", "from");
+
+        assertEquals(2L, e.findFirst("selected rows from t"));
+        assertEquals(1L, e.findFirst("SELECT 1"));
+        assertEquals(AhoCorasickEngine.NO_MATCH, e.findFirst("selected fromage"));
+        assertEquals(AhoCorasickEngine.NO_MATCH, e.findFirst(""));
+    }
+
+    @Test
+    void sanitize_largeInputs_andRepeatedCalls_giveSameResult() {
+        AhoCorasickEngine e = engine("select", "order by");
+        String big = "select a from b order by c; ".repeat(5_000);
+        String expected = "****** a from b ******** c; ".repeat(5_000);
+
+        assertEquals(expected, e.sanitize(big));
+        assertEquals("****** 1", e.sanitize("select 1"));
+        assertEquals(expected, e.sanitize(big));
+    }
+
+    @Test
+    void sanitize_calledAgainFromInsideAppendable_isSafe() throws Exception {
+        AhoCorasickEngine e = engine("select");
+        StringBuilder sink = new StringBuilder();
+        Appendable nested = new Appendable() {
+            @Override
+            public Appendable append(CharSequence csq) {
+                sink.append(e.sanitize("select " + csq));
+                return this;
+            }
+
+            @Override
+            public Appendable append(CharSequence csq, int start, int end) {
+                return append(csq.subSequence(start, end));
+            }
+
+            @Override
+            public Appendable append(char c) {
+                return append(String.valueOf(c));
+            }
+        };
+
+        e.sanitize("x select y", nested);
+
+        assertEquals("****** x ****** ************  y", sink.toString());
+    }
+
+    @Test
+    void sanitizeParallel_sameAsSequential_forAnyChunkSize() {
+        AhoCorasickEngine e = engine("select", "select * from", "order by", "*");
+        String input = "SELECT * FROM t order by x; select *, a from b order  by c* selectorder by;".repeat(20);
+        String expected = e.sanitize(input);
+
+        for (int chunk = 1; chunk <= 64; chunk++) {
+            assertEquals(expected, e.sanitizeParallel(input, java.util.concurrent.ForkJoinPool.commonPool(), chunk),
+                    "chunk size " + chunk);
+        }
+    }
+
+    @Test
+    void sanitizeParallel_sparseMatches_sameAsSequential_andCountedOncePerInput() {
+        PrefilterStats stats = new PrefilterStats();
+        AhoCorasickEngine e = engine("select * from", "from", "order by").withPrefilterStats(stats);
+        String clean = "nothing to view here, just some long text. ".repeat(40);
+        String input = clean + "select * from t" + clean + "x order by" + clean + "from";
+        java.util.concurrent.ForkJoinPool pool = java.util.concurrent.ForkJoinPool.commonPool();
+
+        assertSame(clean, e.sanitizeParallel(clean, pool, 16));
+        assertEquals(1, stats.getMisses());
+        assertEquals(0, stats.getHits());
+
+        String expected = e.sanitize(input);
+        assertEquals(1, stats.getHits());
+        for (int chunk = 5; chunk <= 200; chunk += 13) {
+            assertEquals(expected, e.sanitizeParallel(input, pool, chunk), "chunk size " + chunk);
+        }
+        assertEquals(1, stats.getMisses());
+        assertEquals(17, stats.getHits());
+    }
+
+    @Test
+    void manyTermsWithSharedPrefixes_andNonAsciiChars_allMatch() {
+        List<SensitiveWord> terms = new java.util.ArrayList<>();
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            String term = "t" + Integer.toString(i, 7) + (i % 3 == 0 ? "é" : "") + (i % 5 == 0 ? " \u4e2d" : "");
+            terms.add(new SensitiveWord((long) i, term));
+            input.append(term.toUpperCase()).append(' ');
+        }
+        AhoCorasickEngine e = AhoCorasickEngine.compile(terms);
+
+        assertEquals(2000, e.getTermCount());
+        assertTrue(e.getFootprintBytes() > 0);
+        assertEquals(2000, e.findSpans(input).size());
+        assertTrue(e.sanitize(input.toString()).chars().allMatch(c -> c == '*' || c == ' '));
+    }
+
+    @Test
+    void offHeapStorage_sameResultsAsHeap(@TempDir Path dir) {
+        List<SensitiveWord> terms = List.of(new SensitiveWord(1L, "select"), new SensitiveWord(2L, "select * from"),
+                new SensitiveWord(3L, "order by"), new SensitiveWord(4L, "Ärger"));
+        String input = "SELECT * FROM t order by x; ärger, select selected";
+        AhoCorasickEngine heap = AhoCorasickEngine.compile(terms);
+
+        for (TrieStorage storage : TrieStorage.values()) {
+            AhoCorasickEngine e = AhoCorasickEngine.compile(terms, storage, dir);
+            assertEquals(storage, e.getStorage());
+            assertEquals(heap.sanitize(input), e.sanitize(input), storage.name());
+            assertArrayEquals(heap.findSpans(input).termIds(), e.findSpans(input).termIds(), storage.name());
+            assertEquals(heap.getFootprintBytes(), e.getFootprintBytes());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.sqlsanitize.engine;
+
+import org.example.sqlsanitize.model.SensitiveWord;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefilterTest {
+
+    private static Prefilter prefilter(String... words) {
+        List<SensitiveWord> terms = new ArrayList<>();
+        long id = 1;
+        for (String w : words) {
+            terms.add(new SensitiveWord(id++, w));
+        }
+        return Prefilter.build(AhoCorasickEngine.compile(terms).trie());
+    }
+
+    @Test
+    void candidates_needStartCharBoundaryAndBigram() {
+        Prefilter p = prefilter("select", "*");
+
+        assertEquals(4, p.nextCandidate("abc SELECT", 0));
+        assertEquals(-1, p.nextCandidate("preselect", 0));
+        assertEquals(-1, p.nextCandidate("sum(x) as s", 0));
+        assertEquals(2, p.nextCandidate("a(*)", 0));
+        assertEquals(-1, p.nextCandidate("", 0));
+    }
+
+    @Test
+    void vectorAndScalarSearch_findSamePositions() {
+        Random random = new Random(5);
+        String alphabet = "abAB _.,é1中*";
+        for (int round = 0; round < 500; round++) {
+            String[] words = new String[random.nextInt(8)];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = randomText(random, alphabet, 1 + random.nextInt(4));
+            }
+            Prefilter p = prefilter(words);
+            String input = randomText(random, alphabet, random.nextInt(3000));
+
+            for (int k = 0; k < 10; k++) {
+                int from = random.nextInt(input.length() + 1);
+                assertEquals(p.nextCandidateScalar(input, from), p.nextCandidate(input, from),
+                        () -> "terms " + List.of(words) + ", from " + from);
+            }
+        }
+    }
+
+    private static String randomText(Random random, String alphabet, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.sqlsanitize.engine;
+
+import org.example.sqlsanitize.model.SensitiveWord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotFileTest {
+
+    private static final List<SensitiveWord> WORDS = List.of(
+            new SensitiveWord(1L, "select"), new SensitiveWord(2L, "select * from"), new SensitiveWord(3L, "drop"));
+
+    @Test
+    void roundTrip_keepsVersionAndMatches(@TempDir Path dir) throws IOException {
+        AhoCorasickEngine engine = AhoCorasickEngine.compile(WORDS);
+        Path file = dir.resolve("dictionary.snapshot");
+
+        SnapshotFile.write(file, 42L, engine);
+        SnapshotFile.Loaded loaded = SnapshotFile.read(file).orElseThrow();
+
+        assertEquals(42L, loaded.sourceVersion());
+        assertEquals(TrieStorage.MAPPED, loaded.engine().getStorage());
+        assertEquals(3, loaded.engine().getTermCount());
+        String input = "SELECT * FROM t; drop table x";
+        assertEquals(engine.sanitize(input), loaded.engine().sanitize(input));
+        assertArrayEquals(engine.findSpans(input).termIds(), loaded.engine().findSpans(input).termIds());
+    }
+
+    @Test
+    void rewrite_fromOffHeapEngine_replacesPreviousFile(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("dictionary.snapshot");
+        SnapshotFile.write(file, 1L, AhoCorasickEngine.compile(List.of(new SensitiveWord(1L, "drop"))));
+        SnapshotFile.write(file, 2L, AhoCorasickEngine.compile(WORDS, TrieStorage.DIRECT, dir));
+
+        SnapshotFile.Loaded loaded = SnapshotFile.read(file).orElseThrow();
+        assertEquals(2L, loaded.sourceVersion());
+        assertEquals("******", loaded.engine().sanitize("select"));
+        try (var files = Files.list(dir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void missingFile_isEmpty(@TempDir Path dir) throws IOException {
+        assertTrue(SnapshotFile.read(dir.resolve("nope")).isEmpty());
+    }
+
+    @Test
+    void corruptFile_isRejected(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("dictionary.snapshot");
+        SnapshotFile.write(file, 7L, AhoCorasickEngine.compile(WORDS));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3}), channel.size() - 3);
+        }
+
+        IOException e = assertThrows(IOException.class, () -> SnapshotFile.read(file));
+        assertTrue(e.getMessage().contains("Checksum"));
+    }
+
+    @Test
+    void truncatedFile_isRejected(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("dictionary.snapshot");
+        SnapshotFile.write(file, 7L, AhoCorasickEngine.compile(WORDS));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 8);
+        }
+
+        assertThrows(IOException.class, () -> SnapshotFile.read(file));
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.sqlsanitize.service;
+
+import org.example.sqlsanitize.model.SensitiveWord;
+import org.example.sqlsanitize.repository.DictionaryVersionRepository;
+import org.example.sqlsanitize.repository.SensitiveWordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DictionaryRebuildSchedulerTest {
+
+    @Mock
+    SensitiveWordRepository repo;
+    @Mock
+    DictionaryVersionRepository versionRepo;
+
+    SensitiveWordDictionary dictionary;
+    DictionaryRebuildScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        dictionary = new SensitiveWordDictionary(repo, versionRepo);
+        scheduler = new DictionaryRebuildScheduler(dictionary, Duration.ofMillis(200), Duration.ofMillis(300));
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void burstOfChanges_isCoalescedIntoOneRebuild() throws Exception {
+        when(repo.findAll()).thenReturn(new java.util.ArrayList<>(List.of(new SensitiveWord(1L, "select"))));
+
+        for (int i = 0; i < 5; i++) {
+            scheduler.requestRebuild();
+        }
+        assertEquals(5, scheduler.getPendingChanges());
+        assertEquals("select", dictionary.current().engine().sanitize("select"));
+
+        verify(repo, timeout(2_000)).findAll();
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (dictionary.current().version() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        // Longer than the rebuild window: no second rebuild follows.
+        Thread.sleep(400);
+        verify(repo, times(1)).findAll();
+        assertEquals(0, scheduler.getPendingChanges());
+        assertEquals("******", dictionary.current().engine().sanitize("select"));
+        assertNotNull(dictionary.getLastReloadDuration());
+    }
+
+    @Test
+    void failedRebuild_keepsPreviousSnapshotAndRetries() throws Exception {
+        when(repo.findAll())
+                .thenThrow(new IllegalStateException("db down"))
+                .thenReturn(new java.util.ArrayList<>(List.of(new SensitiveWord(1L, "select"))));
+
+        scheduler.requestRebuild();
+
+        verify(repo, timeout(2_000).times(2)).findAll();
+        long deadline = System.currentTimeMillis() + 2_000;
+        while ((dictionary.isStale() || dictionary.current().version() == 0) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(dictionary.isStale());
+        assertEquals("******", dictionary.current().engine().sanitize("select"));
+    }
+
+    @Test
+    void staleDictionary_isResynced_withoutAnyChange() throws Exception {
+        when(repo.findAll())
+                .thenThrow(new IllegalStateException("db down"))
+                .thenReturn(new java.util.ArrayList<>(List.of(new SensitiveWord(1L, "select"))));
+        assertThrows(IllegalStateException.class, () -> dictionary.reload());
+        assertTrue(dictionary.isStale());
+
+        verify(repo, timeout(2_000).times(2)).findAll();
+        long deadline = System.currentTimeMillis() + 2_000;
+        // The stale flag clears just before the snapshot is published, so wait for both.
+        while ((dictionary.isStale() || dictionary.current().version() == 0) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(dictionary.isStale());
+        assertEquals("******", dictionary.current().engine().sanitize("select"));
+    }
+}
@@ -0,0 +1,146 @@
+package org.example.sqlsanitize.service;
+
+import org.example.sqlsanitize.engine.AhoCorasickEngine;
+import org.example.sqlsanitize.engine.DictionarySnapshot;
+import org.example.sqlsanitize.model.SensitiveWord;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SanitizeResultCacheTest {
+
+    private static final AhoCorasickEngine ENGINE = AhoCorasickEngine.compile(List.of(new SensitiveWord(1L, "select")));
+
+    private static DictionarySnapshot snapshot(long version) {
+        return new DictionarySnapshot(version, version, ENGINE);
+    }
+
+    @Test
+    void sameInputAndVersion_isAHit() {
+        SanitizeResultCache cache = new SanitizeResultCache(10, 100);
+
+        String first = cache.sanitize(snapshot(1), "select 1");
+        String second = cache.sanitize(snapshot(1), "select 1");
+
+        assertEquals("****** 1", first);
+        assertSame(first, second);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void newVersion_dropsOldEntries_andOlderVersionIsNotStored() {
+        SanitizeResultCache cache = new SanitizeResultCache(10, 100);
+        cache.sanitize(snapshot(1), "select 1");
+
+        cache.sanitize(snapshot(2), "select 1");
+        cache.sanitize(snapshot(1), "select 2");
+
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void fullCache_evictsLeastRecentlyUsed() {
+        SanitizeResultCache cache = new SanitizeResultCache(1, 100);
+        cache.sanitize(snapshot(1), "a");
+        cache.sanitize(snapshot(1), "b");
+        cache.sanitize(snapshot(1), "a");
+
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void collidingKeys_neverServeAnotherInputsResult() {
+        SanitizeResultCache cache = new SanitizeResultCache(10, 100) {
+            @Override
+            Key key(long version, String input) {
+                return new Key(version, 42L, 42L);
+            }
+        };
+
+        assertEquals("****** 1", cache.sanitize(snapshot(1), "select 1"));
+        assertEquals("update 1", cache.sanitize(snapshot(1), "update 1"));
+        assertEquals("update 1", cache.sanitize(snapshot(1), "update 1"));
+
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    void concurrentIdenticalCalls_shareOneScan() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger scans = new AtomicInteger();
+        SanitizeResultCache cache = new SanitizeResultCache(10, 100) {
+            @Override
+            String scan(DictionarySnapshot snapshot, String input) {
+                scans.incrementAndGet();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.scan(snapshot, input);
+            }
+        };
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> cache.sanitize(snapshot(1), "select 1")));
+            }
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (cache.getCoalesced() < 7 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("****** 1", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, scans.get());
+            assertEquals(7, cache.getCoalesced());
+            assertEquals(1, cache.getMisses());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void disabledOrTooLong_bypassesCache() {
+        SanitizeResultCache disabled = new SanitizeResultCache(0, 100);
+        assertFalse(disabled.isEnabled());
+        assertEquals("****** 1", disabled.sanitize(snapshot(1), "select 1"));
+        assertEquals("****** 1", disabled.sanitize(snapshot(1), "select 1"));
+        assertEquals(0, disabled.getHits() + disabled.getMisses());
+
+        SanitizeResultCache small = new SanitizeResultCache(10, 4);
+        small.sanitize(snapshot(1), "select 1");
+        assertEquals(0, small.size());
+        assertEquals(0, small.getMisses());
+    }
+
+    @Test
+    void keys_differForSimilarInputs() {
+        Set<SanitizeResultCache.Key> keys = new HashSet<>();
+        for (int length = 0; length < 20; length++) {
+            for (char c = 'a'; c <= 'z'; c++) {
+                keys.add(SanitizeResultCache.Key.of(1, "x".repeat(length) + c));
+            }
+        }
+        assertEquals(20 * 26, keys.size());
+        assertNotEquals(SanitizeResultCache.Key.of(1, "select"), SanitizeResultCache.Key.of(2, "select"));
+    }
+}
@@ -0,0 +1,175 @@
+package org.example.sqlsanitize.service;
+
+import org.example.sqlsanitize.engine.AhoCorasickEngine;
+import org.example.sqlsanitize.engine.SnapshotFile;
+import org.example.sqlsanitize.engine.TrieStorage;
+import org.example.sqlsanitize.model.DictionaryVersion;
+import org.example.sqlsanitize.model.SensitiveWord;
+import org.example.sqlsanitize.repository.DictionaryVersionRepository;
+import org.example.sqlsanitize.repository.SensitiveWordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SensitiveWordDictionaryTest {
+
+    @Mock
+    SensitiveWordRepository repo;
+    @Mock
+    DictionaryVersionRepository versionRepo;
+
+    @TempDir
+    Path dir;
+
+    SensitiveWordDictionary dictionary;
+    Path snapshotFile;
+
+    @BeforeEach
+    void setUp() {
+        dictionary = new SensitiveWordDictionary(repo, versionRepo);
+        snapshotFile = dir.resolve("dictionary.snapshot");
+        ReflectionTestUtils.setField(dictionary, "snapshotFile", snapshotFile.toString());
+    }
+
+    private void storedVersion(long version) {
+        when(versionRepo.findById(DictionaryVersion.SINGLETON_ID))
+                .thenReturn(Optional.of(new DictionaryVersion(DictionaryVersion.SINGLETON_ID, version)));
+    }
+
+    @Test
+    void reload_persistsSnapshotWithStoredVersion() throws Exception {
+        storedVersion(5L);
+        when(repo.findAll()).thenReturn(List.of(new SensitiveWord(1L, "select")));
+
+        dictionary.reload();
+
+        assertEquals(5L, dictionary.current().sourceVersion());
+        SnapshotFile.Loaded loaded = SnapshotFile.read(snapshotFile).orElseThrow();
+        assertEquals(5L, loaded.sourceVersion());
+        assertEquals("******", loaded.engine().sanitize("select"));
+    }
+
+    @Test
+    void startup_mapsPersistedSnapshot_whenVersionMatches() throws Exception {
+        SnapshotFile.write(snapshotFile, 5L, AhoCorasickEngine.compile(List.of(new SensitiveWord(1L, "select"))));
+        storedVersion(5L);
+
+        dictionary.loadOnStartup();
+
+        verify(repo, never()).findAll();
+        assertEquals(TrieStorage.MAPPED, dictionary.current().engine().getStorage());
+        assertEquals("******", dictionary.current().engine().sanitize("select"));
+    }
+
+    @Test
+    void startup_rebuilds_whenSnapshotIsStale() throws Exception {
+        SnapshotFile.write(snapshotFile, 4L, AhoCorasickEngine.compile(List.of(new SensitiveWord(1L, "select"))));
+        storedVersion(5L);
+        when(repo.findAll()).thenReturn(List.of(new SensitiveWord(2L, "drop")));
+
+        dictionary.loadOnStartup();
+
+        assertEquals("select ****", dictionary.current().engine().sanitize("select drop"));
+        assertEquals(5L, SnapshotFile.read(snapshotFile).orElseThrow().sourceVersion());
+    }
+
+    @Test
+    void startup_publishesNothing_untilSeededWordsAreSynced() {
+        when(versionRepo.findById(DictionaryVersion.SINGLETON_ID))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(new DictionaryVersion(DictionaryVersion.SINGLETON_ID, 1L)));
+        when(repo.findAll()).thenReturn(List.of(new SensitiveWord(1L, "select")));
+
+        dictionary.loadOnStartup();
+
+        verify(repo, never()).findAll();
+        assertThrows(DictionaryUnavailableException.class, () -> dictionary.require());
+
+        dictionary.syncAfterStartup();
+
+        assertEquals(1L, dictionary.require().sourceVersion());
+        assertEquals("******", dictionary.require().engine().sanitize("select"));
+    }
+
+    @Test
+    void syncAfterStartup_keepsSnapshot_whenNothingChanged() throws Exception {
+        SnapshotFile.write(snapshotFile, 5L, AhoCorasickEngine.compile(List.of(new SensitiveWord(1L, "select"))));
+        storedVersion(5L);
+        dictionary.loadOnStartup();
+        long version = dictionary.current().version();
+
+        dictionary.syncAfterStartup();
+
+        verify(repo, never()).findAll();
+        assertEquals(version, dictionary.current().version());
+    }
+
+    @Test
+    void startup_rebuilds_whenSnapshotIsCorrupt() throws Exception {
+        Files.writeString(snapshotFile, "garbage that is long enough to hold a header");
+        storedVersion(1L);
+        when(repo.findAll()).thenReturn(List.of(new SensitiveWord(2L, "drop")));
+
+        dictionary.loadOnStartup();
+
+        assertEquals("****", dictionary.current().engine().sanitize("drop"));
+    }
+
+    @Test
+    void markChanged_bumpsVersion_inOneStatement() {
+        dictionary.markChanged();
+
+        verify(versionRepo).increment(DictionaryVersion.SINGLETON_ID);
+        verify(versionRepo, never()).save(any());
+    }
+
+    @Test
+    void startup_servesPersistedSnapshotAsStale_whenDatabaseIsDown() throws Exception {
+        SnapshotFile.write(snapshotFile, 4L, AhoCorasickEngine.compile(List.of(new SensitiveWord(1L, "select"))));
+        when(versionRepo.findById(DictionaryVersion.SINGLETON_ID))
+                .thenThrow(new DataAccessResourceFailureException("db down"))
+                .thenReturn(Optional.of(new DictionaryVersion(DictionaryVersion.SINGLETON_ID, 5L)));
+
+        dictionary.loadOnStartup();
+
+        assertTrue(dictionary.isStale());
+        assertEquals("db down", dictionary.getStaleReason());
+        assertEquals(4L, dictionary.current().sourceVersion());
+        assertEquals("******", dictionary.current().engine().sanitize("select"));
+
+        when(repo.findAll()).thenReturn(List.of(new SensitiveWord(2L, "drop")));
+        dictionary.reload();
+
+        assertFalse(dictionary.isStale());
+        assertNull(dictionary.getStaleSince());
+        assertEquals(5L, dictionary.current().sourceVersion());
+        assertEquals("select ****", dictionary.current().engine().sanitize("select drop"));
+    }
+
+    @Test
+    void startup_withDatabaseDownAndNoSnapshot_refusesToSanitize() {
+        when(versionRepo.findById(DictionaryVersion.SINGLETON_ID))
+                .thenThrow(new DataAccessResourceFailureException("db down"));
+
+        dictionary.loadOnStartup();
+        dictionary.syncAfterStartup();
+
+        assertTrue(dictionary.isStale());
+        assertEquals(0L, dictionary.current().version());
+        assertThrows(DictionaryUnavailableException.class, () -> dictionary.require());
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.sqlsanitize.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SensitiveWordExportServiceTest {
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    SensitiveWordExportService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        service = new SensitiveWordExportService(jdbcTemplate);
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn(1L, 2L);
+        when(rs.getString(2)).thenReturn("order by", "say \"hi\", then\nleave");
+        doAnswer(inv -> {
+            RowCallbackHandler handler = inv.getArgument(1);
+            handler.processRow(rs);
+            handler.processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    private String export(WordFileFormat format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(2, service.export(format, out));
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void ndjson_writesOneObjectPerLine() throws Exception {
+        assertEquals("""
+                {"id":1,"word":"order by"}
+                {"id":2,"word":"say \\"hi\\", then\\nleave"}
+                """, export(WordFileFormat.NDJSON));
+    }
+
+    @Test
+    void csv_quotesWhereNeeded() throws Exception {
+        assertEquals("word,id\norder by,1\n\"say \"\"hi\"\", then\nleave\",2\n", export(WordFileFormat.CSV));
+    }
+}
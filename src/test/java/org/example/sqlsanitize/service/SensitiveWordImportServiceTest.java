@@ -0,0 +1,131 @@
+package org.example.sqlsanitize.service;
+
+import org.example.sqlsanitize.dto.ImportResultDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SensitiveWordImportServiceTest {
+
+    @Mock
+    SensitiveWordDictionary dictionary;
+    @Mock
+    DictionaryRebuildScheduler scheduler;
+    @Mock
+    TransactionTemplate transactionTemplate;
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    SensitiveWordImportService service;
+
+    /** Terms of each batch written, in order. */
+    final List<List<String>> batches = new ArrayList<>();
+
+    /** What the table holds; the insert skips these like the not-exists check would. */
+    final Set<String> stored = new HashSet<>();
+
+    @BeforeEach
+    void setUp() {
+        service = new SensitiveWordImportService(dictionary, scheduler, transactionTemplate, jdbcTemplate);
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(
+                inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(mock(TransactionStatus.class)));
+        lenient().when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(inv -> {
+            List<Object[]> rows = inv.getArgument(1);
+            batches.add(rows.stream().map(row -> (String) row[0]).toList());
+            return rows.stream().mapToInt(row -> stored.add((String) row[1]) ? 1 : 0).toArray();
+        });
+    }
+
+    @Test
+    void ndjson_insertsInBatches_andCountsSkippedAndRejected() throws Exception {
+        stored.add("join");
+        String ndjson = """
+                "SELECT"
+                {"word": "From", "note": {"source": "audit"}}
+
+                42
+                {bad
+                "  "
+                "select"
+                "join"
+                "where"
+                """;
+
+        ImportResultDTO result = service.importWords(new StringReader(ndjson), WordFileFormat.NDJSON);
+
+        assertEquals(new ImportResultDTO(3, 2, 3), result);
+        assertEquals(List.of(List.of("select", "from"), List.of("select", "join"), List.of("where")), batches);
+        verify(dictionary, times(2)).markChanged();
+        verify(scheduler).rebuildForCommittedChanges();
+    }
+
+    @Test
+    void csv_takesFirstColumn_andHandlesQuoting() throws Exception {
+        // "taken" plays a term someone else stored while the import ran.
+        stored.add("taken");
+        String csv = "word,comment\n"
+                + "\"order by\",\"spans\ntwo lines\"\r\n"
+                + "\"say \"\"hi\"\"\",x\n"
+                + "\n"
+                + ",blank\n"
+                + "taken\n";
+
+        ImportResultDTO result = service.importWords(new StringReader(csv), WordFileFormat.CSV);
+
+        assertEquals(new ImportResultDTO(2, 1, 1), result);
+        assertEquals(List.of(List.of("order by", "say \"hi\""), List.of("taken")), batches);
+        verify(dictionary, times(1)).markChanged();
+        verify(scheduler).rebuildForCommittedChanges();
+    }
+
+    @Test
+    void nothingNew_requestsNoRebuild() throws Exception {
+        stored.add("select");
+
+        ImportResultDTO result = service.importWords(new StringReader("select\nSELECT\n"),
+                WordFileFormat.CSV);
+
+        assertEquals(new ImportResultDTO(0, 2, 0), result);
+        verify(dictionary, never()).markChanged();
+        verifyNoInteractions(scheduler);
+    }
+
+    @Test
+    void failedRead_stillRebuildsForCommittedBatches() {
+        Reader failing = new FilterReader(new StringReader("select\nfrom\nwhere\n")) {
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                int read = super.read(buffer, offset, length);
+                if (read == -1) throw new IOException("connection reset");
+                return read;
+            }
+        };
+
+        assertThrows(IOException.class, () -> service.importWords(failing, WordFileFormat.CSV));
+
+        assertEquals(List.of(List.of("select", "from")), batches);
+        verify(scheduler).rebuildForCommittedChanges();
+    }
+}
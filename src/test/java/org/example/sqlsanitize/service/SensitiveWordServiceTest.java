@@ -1,6 +1,7 @@
 package org.example.sqlsanitize.service;
 
 import org.example.sqlsanitize.model.SensitiveWord;
+import org.example.sqlsanitize.repository.DictionaryVersionRepository;
 import org.example.sqlsanitize.repository.SensitiveWordRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,7 +10,13 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
@@ -22,12 +29,21 @@ class SensitiveWordServiceTest {
 
     @Mock
     SensitiveWordRepository repo;
+    @Mock
+    DictionaryVersionRepository versionRepo;
+    @Mock
+    DictionaryRebuildScheduler rebuildScheduler;
 
+    SensitiveWordDictionary dictionary;
+    SanitizeResultCache cache;
     SensitiveWordService service;
 
     @BeforeEach
     void setUp() {
-        service = new SensitiveWordService(repo);
+        dictionary = new SensitiveWordDictionary(repo, versionRepo);
+        cache = new SanitizeResultCache(100, 4096);
+        service = new SensitiveWordService(repo, dictionary, rebuildScheduler, cache);
+        ReflectionTestUtils.setField(service, "maxBatchSize", 3);
     }
 
     @Test
@@ -119,6 +135,7 @@ class SensitiveWordServiceTest {
                 new SensitiveWord(2L, "order by"),
                 new SensitiveWord(3L, "*")
         )));
+        dictionary.reload();
 
         String out = service.sanitize("Select * from t order by name");
 
@@ -131,14 +148,165 @@ class SensitiveWordServiceTest {
         assertEquals("", service.sanitize(""));
     }
 
+    @Test
+    void sanitize_beforeDictionaryIsLoaded_refusesInsteadOfPassingThrough() {
+        assertThrows(DictionaryUnavailableException.class, () -> service.sanitize("select 1"));
+        assertThrows(DictionaryUnavailableException.class, () -> service.sanitizeAll(List.of("select 1")));
+        assertThrows(DictionaryUnavailableException.class, () -> service.findFirstMatch("select 1"));
+        assertThrows(DictionaryUnavailableException.class, () -> service.requireDictionary());
+    }
+
     @Test
     void phrase_is_masked_before_single_word() {
         when(repo.findAll()).thenReturn(new java.util.ArrayList<>(List.of(
                 new SensitiveWord(1L, "select"),
                 new SensitiveWord(2L, "select * from")
         )));
+        dictionary.reload();
 
         String out = service.sanitize("SELECT * FROM t");
         assertEquals("************* t", out);
     }
+
+    @Test
+    void sanitize_usesSnapshot_withoutHittingRepository() {
+        when(repo.findAll()).thenReturn(new java.util.ArrayList<>(List.of(new SensitiveWord(1L, "select"))));
+        dictionary.reload();
+
+        assertEquals("****** 1 from t", service.sanitize("select 1 from t"));
+        assertEquals("****** 2 from t", service.sanitize("select 2 from t"));
+        verify(repo, times(1)).findAll();
+    }
+
+    @Test
+    void sanitize_repeatedInput_isCached_untilDictionaryChanges() {
+        when(repo.findAll())
+                .thenReturn(new java.util.ArrayList<>(List.of(new SensitiveWord(1L, "select"))))
+                .thenReturn(new java.util.ArrayList<>(List.of(new SensitiveWord(1L, "select"), new SensitiveWord(2L, "from"))));
+        dictionary.reload();
+
+        assertEquals("****** 1 from t", service.sanitize("select 1 from t"));
+        assertEquals("****** 1 from t", service.sanitize("select 1 from t"));
+        assertEquals(1, cache.getHits());
+
+        dictionary.reload();
+        assertEquals("****** 1 **** t", service.sanitize("select 1 from t"));
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    void add_requestsDictionaryRebuild() {
+        when(repo.existsByWordIgnoreCase("from")).thenReturn(false);
+        when(repo.save(any(SensitiveWord.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        service.add("from");
+
+        verify(rebuildScheduler).requestRebuild();
+    }
+
+    @Test
+    void update_requestsDictionaryRebuild() {
+        when(repo.findById(5L)).thenReturn(Optional.of(new SensitiveWord(5L, "old")));
+        when(repo.findByWordIgnoreCase("from")).thenReturn(Optional.empty());
+        when(repo.save(any(SensitiveWord.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        service.update(5L, "from");
+
+        verify(rebuildScheduler).requestRebuild();
+    }
+
+    @Test
+    void deleteById_requestsDictionaryRebuild() {
+        service.deleteById(1L);
+
+        verify(repo).deleteById(1L);
+        verify(rebuildScheduler).requestRebuild();
+    }
+
+    @Test
+    void failedAdd_doesNotRequestRebuild() {
+        when(repo.existsByWordIgnoreCase("select")).thenReturn(true);
+        assertThrows(IllegalStateException.class, () -> service.add("select"));
+        verifyNoInteractions(rebuildScheduler);
+    }
+
+    @Test
+    void sanitizeAll_keepsOrder() {
+        when(repo.findAll()).thenReturn(new java.util.ArrayList<>(List.of(new SensitiveWord(1L, "select"))));
+        dictionary.reload();
+
+        List<String> out = service.sanitizeAll(List.of("select 1", "", "nothing here"));
+
+        assertEquals(List.of("****** 1", "", "nothing here"), out);
+    }
+
+    @Test
+    void sanitizeAll_tooLarge_throws() {
+        assertThrows(IllegalArgumentException.class, () -> service.sanitizeAll(List.of("a", "b", "c", "d")));
+    }
+
+    @Test
+    void sanitizeStream_matchesStringSanitize_acrossChunkBoundaries() throws Exception {
+        when(repo.findAll()).thenReturn(new java.util.ArrayList<>(List.of(
+                new SensitiveWord(1L, "select"),
+                new SensitiveWord(2L, "order by")
+        )));
+        dictionary.reload();
+        // Long enough to span several read chunks, so some terms straddle chunk boundaries.
+        String input = "Select * from t order by name; selected; ".repeat(2_000);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.sanitizeStream(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), out, StandardCharsets.UTF_8);
+
+        assertEquals(service.sanitize(input), out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void sanitize_readerToWriter() throws Exception {
+        when(repo.findAll()).thenReturn(new java.util.ArrayList<>(List.of(new SensitiveWord(1L, "select"))));
+        dictionary.reload();
+
+        StringWriter out = new StringWriter();
+        service.sanitize(new StringReader("select 1; SELECT 2"), out);
+
+        assertEquals("****** 1; ****** 2", out.toString());
+    }
+
+    @Test
+    void sanitize_charSequenceToAppendable() throws Exception {
+        when(repo.findAll()).thenReturn(new java.util.ArrayList<>(List.of(new SensitiveWord(1L, "order by"))));
+        dictionary.reload();
+
+        StringBuilder out = new StringBuilder("> ");
+        service.sanitize(new StringBuilder("x order by y"), out);
+
+        assertEquals("> x ******** y", out.toString());
+    }
+
+    @Test
+    void findFirstMatch_returnsTermIdOrEmpty() {
+        when(repo.findAll()).thenReturn(new java.util.ArrayList<>(List.of(new SensitiveWord(4L, "drop"))));
+        dictionary.reload();
+
+        assertEquals(4L, service.findFirstMatch("DROP TABLE t").getAsLong());
+        assertTrue(service.findFirstMatch("dropped").isEmpty());
+    }
+
+    @Test
+    void sanitize_largeInput_parallelMatchesSequential() {
+        when(repo.findAll()).thenReturn(new java.util.ArrayList<>(List.of(
+                new SensitiveWord(1L, "select"),
+                new SensitiveWord(2L, "order by"),
+                new SensitiveWord(3L, "select * from")
+        )));
+        dictionary.reload();
+        String input = "SELECT * FROM t order by name; selected order  by x;\n".repeat(500);
+        String sequential = service.sanitize(input);
+
+        ReflectionTestUtils.setField(service, "parallelThreshold", 100);
+        ReflectionTestUtils.setField(service, "parallelChunkSize", 37);
+
+        assertEquals(sequential, service.sanitize(input));
+    }
 }
@@ -2,6 +2,8 @@ package org.example.sqlsanitize.util;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.regex.Pattern;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class WordUtilsTest {
@@ -11,6 +13,17 @@ class WordUtilsTest {
         assertEquals("select", WordUtils.validateAndNormalize("  SELECT  "));
     }
 
+    @Test
+    void validateAndNormalize_lowercaseAscii_isNotCopied() {
+        String word = "order by";
+        assertSame(word, WordUtils.validateAndNormalize(word));
+    }
+
+    @Test
+    void validateAndNormalize_nonAscii_lowercasesToo() {
+        assertEquals("ärger mit Ω".toLowerCase(), WordUtils.validateAndNormalize(" ÄRGER mit Ω "));
+    }
+
     @Test
     void validateAndNormalize_null_throws() {
         assertThrows(IllegalArgumentException.class, () -> WordUtils.validateAndNormalize(null));
@@ -42,4 +55,59 @@ class WordUtilsTest {
         assertTrue(r.contains("(?<=\\W|^)"));
         assertTrue(r.contains("(?=\\W|$)"));
     }
+
+    @Test
+    void isWordChar_matchesRegexWordBoundary() {
+        assertTrue(WordUtils.isWordChar('a'));
+        assertTrue(WordUtils.isWordChar('Z'));
+        assertTrue(WordUtils.isWordChar('7'));
+        assertTrue(WordUtils.isWordChar('_'));
+        assertTrue(WordUtils.isWordChar('é'));
+        assertTrue(WordUtils.isWordChar('中'));
+        assertTrue(WordUtils.isWordChar('٣'));
+        assertFalse(WordUtils.isWordChar(' '));
+        assertFalse(WordUtils.isWordChar('*'));
+        assertFalse(WordUtils.isWordChar('€'));
+
+        // Same verdict as \b on either side of the char.
+        Pattern boundary = Pattern.compile("\\b");
+        for (int i = 0; i <= Character.MAX_VALUE; i++) {
+            char c = (char) i;
+            if (Character.isSurrogate(c)) continue;
+            boolean bounded = boundary.matcher(" " + c).find(1);
+            assertEquals(bounded, WordUtils.isWordChar(c), () -> "char " + Integer.toHexString(c));
+        }
+    }
+
+    @Test
+    void isAsciiWordChar_matchesPhraseLookarounds() {
+        // Same verdict as the \W lookbehind in front of a phrase, for every char.
+        Pattern lookbehind = Pattern.compile("(?<=\\W|^)x");
+        for (int i = 0; i <= Character.MAX_VALUE; i++) {
+            char c = (char) i;
+            if (Character.isSurrogate(c)) continue;
+            boolean bounded = lookbehind.matcher(c + "x").find(1);
+            assertEquals(!bounded, WordUtils.isAsciiWordChar(c), () -> "char " + Integer.toHexString(c));
+        }
+    }
+
+    @Test
+    void isWordOnly_sameAsRegexChoice() {
+        assertTrue(WordUtils.isWordOnly("select"));
+        assertTrue(WordUtils.isWordOnly("col_1"));
+        assertFalse(WordUtils.isWordOnly("order by"));
+        assertFalse(WordUtils.isWordOnly("*"));
+        assertFalse(WordUtils.isWordOnly("café"));
+        assertFalse(WordUtils.isWordOnly(""));
+        for (String term : new String[]{"select", "order by", "*", "café"}) {
+            assertEquals(WordUtils.isWordOnly(term), WordUtils.buildBoundaryRegex(term).contains("\\b"), term);
+        }
+    }
+
+    @Test
+    void foldCase_sameAsCharacterToLowerCase_forEveryChar() {
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            assertEquals(Character.toLowerCase((char) c), WordUtils.foldCase((char) c));
+        }
+    }
 }